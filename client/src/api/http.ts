@@ -20,7 +20,7 @@ async function readErrorMessage(res: Response): Promise<string> {
   }
 }
 
-export async function apiFetch<T>(path: string, init?: RequestInit): Promise<T> {
+async function request(path: string, init?: RequestInit): Promise<Response> {
   const token = getAccessToken()
   const res = await fetch(`${API_BASE}${path}`, {
     ...init,
@@ -36,6 +36,11 @@ export async function apiFetch<T>(path: string, init?: RequestInit): Promise<T>
     const msg = await readErrorMessage(res)
     throw new Error(msg || `Request failed with ${res.status}`)
   }
+  return res
+}
+
+export async function apiFetch<T>(path: string, init?: RequestInit): Promise<T> {
+  const res = await request(path, init)
 
   // If server returns empty body, still satisfy typing
   if (res.status === 204) return undefined as T
@@ -47,3 +52,17 @@ export async function apiFetch<T>(path: string, init?: RequestInit): Promise<T>
   return (await res.text()) as unknown as T
 }
 
+export type Page<T> = { items: T[]; nextCursor: string | null }
+
+// Cursor-paginated listings return a JSON array and the next page's cursor in X-Next-Cursor
+export async function apiFetchPage<T>(path: string, init?: RequestInit): Promise<Page<T>> {
+  const res = await request(path, init)
+  return { items: (await res.json()) as T[], nextCursor: res.headers.get('x-next-cursor') }
+}
+
+// Body of a long-lived response (e.g. Server-Sent Events), read incrementally by the caller
+export async function apiFetchStream(path: string, init?: RequestInit): Promise<ReadableStream<Uint8Array>> {
+  const res = await request(path, init)
+  if (!res.body) throw new Error('Streaming responses are not supported by this browser')
+  return res.body
+}
@@ -0,0 +1,76 @@
+import { apiFetchStream } from './http'
+import type { AuditLogEntry, StockMovement } from './types'
+
+export type LiveTopic = 'stock-movements' | 'audit-logs'
+
+export type LiveHandlers = {
+  onStockMovement?: (movement: StockMovement) => void
+  onAuditLog?: (entry: AuditLogEntry) => void
+  // Events were missed and cannot be replayed; reload the listings
+  onReset?: () => void
+}
+
+const RETRY_MS = 3000
+
+/**
+ * Follows /api/v1/live/events until the returned function is called. EventSource cannot send the
+ * bearer token, so the stream is read with fetch; it reconnects with Last-Event-ID after errors.
+ */
+export function subscribeLiveEvents(topics: LiveTopic[], handlers: LiveHandlers): () => void {
+  const controller = new AbortController()
+  let lastEventId: string | null = null
+  let retryMs = RETRY_MS
+
+  function dispatch(name: string, data: string) {
+    if (name === 'stock-movement') handlers.onStockMovement?.(JSON.parse(data) as StockMovement)
+    else if (name === 'audit-log') handlers.onAuditLog?.(JSON.parse(data) as AuditLogEntry)
+    else if (name === 'reset') handlers.onReset?.()
+  }
+
+  async function follow() {
+    const query = topics.map((t) => `topics=${encodeURIComponent(t)}`).join('&')
+    const body = await apiFetchStream(`/api/v1/live/events?${query}`, {
+      headers: { Accept: 'text/event-stream', ...(lastEventId ? { 'Last-Event-ID': lastEventId } : {}) },
+      signal: controller.signal,
+    })
+    const reader = body.pipeThrough(new TextDecoderStream()).getReader()
+    let buffered = ''
+    for (;;) {
+      const { value, done } = await reader.read()
+      if (done) return
+      buffered += value.replace(/\r\n?/g, '\n')
+      let end: number
+      while ((end = buffered.indexOf('\n\n')) >= 0) {
+        const block = buffered.slice(0, end)
+        buffered = buffered.slice(end + 2)
+        let name = 'message'
+        const data: string[] = []
+        for (const line of block.split('\n')) {
+          if (line.startsWith(':')) continue
+          const colon = line.indexOf(':')
+          const field = colon < 0 ? line : line.slice(0, colon)
+          const fieldValue = colon < 0 ? '' : line.slice(colon + 1).replace(/^ /, '')
+          if (field === 'id') lastEventId = fieldValue
+          else if (field === 'event') name = fieldValue
+          else if (field === 'data') data.push(fieldValue)
+          else if (field === 'retry' && /^\d+$/.test(fieldValue)) retryMs = Number(fieldValue)
+        }
+        if (data.length > 0) dispatch(name, data.join('\n'))
+      }
+    }
+  }
+
+  void (async () => {
+    while (!controller.signal.aborted) {
+      try {
+        await follow()
+      } catch {
+        // Reconnect below
+      }
+      if (controller.signal.aborted) return
+      await new Promise((resolve) => setTimeout(resolve, retryMs))
+    }
+  })()
+
+  return () => controller.abort()
+}
@@ -1,8 +1,18 @@
-import { apiFetch } from './http'
+import { apiFetch, apiFetchPage } from './http'
 import type { Product, ProductCreate } from './types'
 
-export function getAllProducts(): Promise<Product[]> {
-  return apiFetch<Product[]>('/api/v1/products')
+const PAGE_SIZE = 500
+
+export async function getAllProducts(): Promise<Product[]> {
+  const products: Product[] = []
+  let cursor: string | null = null
+  do {
+    const query: string = cursor ? `&cursor=${encodeURIComponent(cursor)}` : ''
+    const page = await apiFetchPage<Product>(`/api/v1/products?limit=${PAGE_SIZE}${query}`)
+    products.push(...page.items)
+    cursor = page.nextCursor
+  } while (cursor)
+  return products
 }
 
 export function createProduct(dto: ProductCreate): Promise<Product> {
@@ -0,0 +1,23 @@
+import { apiFetch } from './http'
+
+export type CategoryStats = {
+  category: string | null
+  products: number
+  units: number
+  value: number
+  lowStockProducts: number
+  outOfStockProducts: number
+}
+
+export type InventoryStats = {
+  products: number
+  units: number
+  value: number
+  lowStockProducts: number
+  outOfStockProducts: number
+  categories: CategoryStats[]
+}
+
+export function getInventoryStats(): Promise<InventoryStats> {
+  return apiFetch<InventoryStats>('/api/v1/stats/inventory')
+}
@@ -1,5 +1,6 @@
 import { createContext, useCallback, useContext, useEffect, useMemo, useState } from 'react'
 import { getAuditLogs } from '../api/auditLogs'
+import { subscribeLiveEvents } from '../api/live'
 import type { AuditLogEntry } from '../api/types'
 
 type AuditLogsState = {
@@ -33,6 +34,17 @@ export function AuditLogsProvider({ children }: { children: React.ReactNode }) {
     void refresh(50)
   }, [refresh])
 
+  // New entries are pushed by the server as they are written instead of being polled for
+  useEffect(() => {
+    return subscribeLiveEvents(['audit-logs'], {
+      onAuditLog: (entry) =>
+        setEntries((prev) =>
+          prev.some((e) => e.id === entry.id) ? prev : [entry, ...prev].slice(0, Math.max(prev.length, 50))
+        ),
+      onReset: () => void refresh(50),
+    })
+  }, [refresh])
+
   const value = useMemo(
     () => ({ entries, loading, error, refresh }),
     [entries, loading, error, refresh]
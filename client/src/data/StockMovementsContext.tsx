@@ -1,4 +1,5 @@
 import { createContext, useCallback, useContext, useEffect, useMemo, useState } from 'react'
+import { subscribeLiveEvents } from '../api/live'
 import { getStockMovements } from '../api/stockMovements'
 import type { StockMovement } from '../api/types'
 
@@ -33,6 +34,17 @@ export function StockMovementsProvider({ children }: { children: React.ReactNode
     void refresh(50)
   }, [refresh])
 
+  // New movements are pushed by the server as they commit instead of being polled for
+  useEffect(() => {
+    return subscribeLiveEvents(['stock-movements'], {
+      onStockMovement: (movement) =>
+        setMovements((prev) =>
+          prev.some((m) => m.id === movement.id) ? prev : [movement, ...prev].slice(0, Math.max(prev.length, 50))
+        ),
+      onReset: () => void refresh(50),
+    })
+  }, [refresh])
+
   const value = useMemo(() => ({ movements, loading, error, refresh }), [movements, loading, error, refresh])
 
   return <StockMovementsContext.Provider value={value}>{children}</StockMovementsContext.Provider>
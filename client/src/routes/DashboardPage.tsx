@@ -1,5 +1,6 @@
-import { useMemo, useState } from 'react'
+import { useEffect, useMemo, useState } from 'react'
 import { useNavigate } from 'react-router-dom'
+import { getInventoryStats, type InventoryStats } from '../api/stats'
 import { StatsGrid } from '../components/StatsGrid'
 import { InventoryTable } from '../components/InventoryTable'
 import { useProducts } from '../data/ProductsContext'
@@ -12,6 +13,23 @@ export function DashboardPage() {
   const { products, loading, error, refresh } = useProducts()
   const navigate = useNavigate()
   const [filter, setFilter] = useState<FilterId>('all')
+  const [stats, setStats] = useState<InventoryStats | null>(null)
+
+  // Totals come from the server; reload them whenever the product list has been reloaded
+  useEffect(() => {
+    if (loading) return
+    let cancelled = false
+    getInventoryStats()
+      .then((data) => {
+        if (!cancelled) setStats(data)
+      })
+      .catch(() => {
+        if (!cancelled) setStats(null)
+      })
+    return () => {
+      cancelled = true
+    }
+  }, [products, loading])
 
   const visible = useMemo(() => {
     return products.filter((p) => {
@@ -23,13 +41,21 @@ export function DashboardPage() {
   }, [products, filter])
 
   const computed = useMemo(() => {
+    if (stats) {
+      return {
+        totalSkus: stats.products,
+        inventoryValue: stats.value,
+        lowStockItems: stats.lowStockProducts,
+        outOfStockItems: stats.outOfStockProducts,
+      }
+    }
     const totalSkus = products.length
     const inventoryValue = products.reduce((acc, p) => acc + totalValue(p), 0)
     const lowStockItems = products.filter((p) => getStatus(p) === 'low-stock').length
     const outOfStockItems = products.filter((p) => getStatus(p) === 'out-of-stock').length
 
     return { totalSkus, inventoryValue, lowStockItems, outOfStockItems }
-  }, [products])
+  }, [products, stats])
 
   return (
     <>
@@ -0,0 +1,22 @@
+package com.octavian.server.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+
+/**
+ * Data source wrappers are applied in order, innermost first. {@code @Bean} methods must declare
+ * this type: post-processors are sorted by their declared type, before they are created.
+ */
+abstract class OrderedBeanPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final int order;
+
+    OrderedBeanPostProcessor(int order) {
+        this.order = order;
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+}
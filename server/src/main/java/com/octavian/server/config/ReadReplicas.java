@@ -0,0 +1,216 @@
+package com.octavian.server.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Read replicas of the primary database, each with its own connection pool. A scheduled check
+ * measures every replica's replication lag; a replica serves reads only while it answers and lags
+ * at most {@code max-lag} behind the primary. Replicas start out unused until their first check
+ * passes, and one that fails to hand out a connection is dropped until the next check.
+ * <p>
+ * A replica counts as caught up only once it has replayed the primary's current WAL position,
+ * read just before the check. Without that (the primary did not answer), it must at least be
+ * streaming from the primary: one that lost its stream replays everything it received and then
+ * looks current while falling arbitrarily far behind.
+ */
+@Slf4j
+@Component
+public class ReadReplicas {
+
+    private static final String PRIMARY_LSN_QUERY = "SELECT pg_current_wal_lsn()::text";
+    /**
+     * Milliseconds since the last replayed transaction, or 0 once the replica has replayed up to
+     * the primary's position (the parameter) or, without one, everything it is streaming. A server
+     * that is not in recovery (a promoted replica, or a plain second database standing in for one
+     * locally) has nothing to replay. NULL when the lag cannot be told.
+     */
+    private static final String LAG_QUERY = """
+            WITH primary_position AS (SELECT CAST(? AS pg_lsn) AS lsn)
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN p.lsn IS NOT NULL AND pg_last_wal_replay_lsn() >= p.lsn THEN 0
+                       WHEN p.lsn IS NOT NULL THEN EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000
+                       WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000
+                   END
+            FROM primary_position p
+            """;
+    private static final long CONNECTION_TIMEOUT_MS = 2000;
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Supplier<DataSource> primary;
+    private final long maxLagMs;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Autowired
+    public ReadReplicas(
+            MeterRegistry meterRegistry,
+            ObjectProvider<DataSource> primary,
+            @Value("${inventory.db.replicas.urls:}") List<String> urls,
+            @Value("${inventory.db.replicas.username:${spring.datasource.username:}}") String username,
+            @Value("${inventory.db.replicas.password:${spring.datasource.password:}}") String password,
+            @Value("${inventory.db.replicas.pool-size:10}") int poolSize,
+            @Value("${inventory.db.replicas.max-lag:PT5S}") Duration maxLag) {
+        this(primary::getIfAvailable, pools(urls, username, password, poolSize, meterRegistry), maxLag, meterRegistry);
+    }
+
+    ReadReplicas(Supplier<DataSource> primary, Map<String, DataSource> dataSources, Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLagMs = maxLag.toMillis();
+        dataSources.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            replicas.add(replica);
+            Gauge.builder("inventory.db.replica.lag", replica, r -> r.lagMs)
+                    .description("Replication lag of a read replica in milliseconds, NaN while it is not usable")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        });
+    }
+
+    public boolean isEmpty() {
+        return replicas.isEmpty();
+    }
+
+    /** A usable replica, taking turns between them, or {@code null} when there is none. */
+    Replica pick() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.usable) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.db.replicas.check-interval-ms:5000}")
+    public void check() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        String primaryLsn = primaryLsn();
+        for (Replica replica : replicas) {
+            Double lagMs;
+            try (Connection connection = replica.dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(LAG_QUERY)) {
+                statement.setString(1, primaryLsn);
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    lagMs = rs.getObject(1) == null ? null : rs.getDouble(1);
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.markDown("check failed: " + e.getMessage());
+                continue;
+            }
+            if (lagMs == null) {
+                replica.markDown("replication lag unknown");
+            } else if (lagMs > maxLagMs) {
+                replica.markDown("lagging " + lagMs.longValue() + " ms behind");
+            } else {
+                replica.markUp(lagMs);
+            }
+        }
+    }
+
+    /** The primary's current WAL position, or {@code null} when it cannot be read. */
+    private String primaryLsn() {
+        DataSource dataSource = primary.get();
+        if (dataSource == null) {
+            return null;
+        }
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(PRIMARY_LSN_QUERY)) {
+            return rs.next() ? rs.getString(1) : null;
+        } catch (SQLException | RuntimeException e) {
+            log.debug("Could not read the primary's WAL position; replicas must be streaming to count as current", e);
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        replicas.forEach(replica -> {
+            if (replica.dataSource instanceof HikariDataSource pool) {
+                pool.close();
+            }
+        });
+    }
+
+    private static Map<String, DataSource> pools(
+            List<String> urls, String username, String password, int poolSize, MeterRegistry meterRegistry) {
+        Map<String, DataSource> pools = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + (pools.size() + 1));
+            pool.setJdbcUrl(url.trim());
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setMaximumPoolSize(Math.max(1, poolSize));
+            pool.setReadOnly(true);
+            // A replica that is down must not hold up startup or a request for long; the primary takes over
+            pool.setConnectionTimeout(CONNECTION_TIMEOUT_MS);
+            pool.setInitializationFailTimeout(-1);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            pools.put(pool.getPoolName(), pool);
+        }
+        return pools;
+    }
+
+    static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        volatile boolean usable;
+        volatile double lagMs = Double.NaN;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        void markDown(String reason) {
+            if (usable) {
+                log.warn("Read replica {} taken out of rotation: {}", name, reason);
+            }
+            usable = false;
+            lagMs = Double.NaN;
+        }
+
+        private void markUp(double lagMs) {
+            if (!usable) {
+                log.info("Read replica {} in rotation, {} ms behind", name, (long) lagMs);
+            }
+            this.lagMs = lagMs;
+            usable = true;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.octavian.server.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Keeps a user's reads on the primary for {@code window} after their last write, so they see their
+ * own changes however far the replicas lag. Any request with an unsafe method counts as a write and
+ * runs on the primary itself. Whatever pinned the request, the pin is released when it completes.
+ */
+class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    /** Null when read-your-writes is off ({@code window} not positive). */
+    private final Cache<String, Boolean> recentWriters;
+
+    ReadYourWritesInterceptor(Duration window) {
+        this.recentWriters = window.isPositive()
+                ? Caffeine.newBuilder().maximumSize(100_000).expireAfterWrite(window).build()
+                : null;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String user = user(request);
+        if (isWrite(request) || (user != null && recentWriters != null && recentWriters.getIfPresent(user) != null)) {
+            ReplicaRoutingDataSource.pinToPrimary();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        String user = user(request);
+        if (user != null && recentWriters != null && isWrite(request)) {
+            recentWriters.put(user, Boolean.TRUE);
+        }
+        ReplicaRoutingDataSource.unpin();
+    }
+
+    /** The request thread goes back to the pool while a streaming response is written elsewhere. */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReplicaRoutingDataSource.unpin();
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        return !SAFE_METHODS.contains(request.getMethod());
+    }
+
+    private static String user(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? principal.getName() : null;
+    }
+}
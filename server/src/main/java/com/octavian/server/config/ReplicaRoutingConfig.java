@@ -0,0 +1,62 @@
+package com.octavian.server.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * With {@code inventory.db.replicas.urls} set, read-only transactions run on {@link ReadReplicas}
+ * and everything else on the primary. The routing wraps the data source after the
+ * {@link BulkheadDataSource}, so the bulkhead only counts primary connections.
+ */
+@Configuration
+public class ReplicaRoutingConfig implements WebMvcConfigurer {
+
+    private final ReadReplicas readReplicas;
+    private final Duration readYourWrites;
+
+    public ReplicaRoutingConfig(
+            ReadReplicas readReplicas,
+            @Value("${inventory.db.replicas.read-your-writes:PT5S}") Duration readYourWrites) {
+        this.readReplicas = readReplicas;
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Bean
+    static OrderedBeanPostProcessor readReplicaRouting(
+            ObjectProvider<ReadReplicas> readReplicas,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new OrderedBeanPostProcessor(Ordered.LOWEST_PRECEDENCE) {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource primary) || bean instanceof LazyConnectionDataSourceProxy) {
+                    return bean;
+                }
+                ReadReplicas replicas = readReplicas.getObject();
+                if (replicas.isEmpty()) {
+                    return bean;
+                }
+                LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+                proxy.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replicas, meterRegistry.getObject()));
+                return proxy;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Also releases pins taken for fresh listings (ConditionalGets), so it is there even without read-your-writes
+        if (!readReplicas.isEmpty()) {
+            registry.addInterceptor(new ReadYourWritesInterceptor(readYourWrites));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.octavian.server.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Connections for read-only work: from a usable replica when there is one, otherwise from the
+ * primary. It is installed as the read-only data source of a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which only fetches a
+ * connection at the first statement, once {@code @Transactional(readOnly = true)} has marked it
+ * read-only.
+ * <p>
+ * {@link #pinToPrimary()} sends the current thread's reads to the primary until {@link #unpin()}.
+ * Threads started meanwhile, like the dashboard's sections, follow the pin; a pooled thread that
+ * happened to be started under a pin is released with it.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final InheritableThreadLocal<AtomicBoolean> PRIMARY_ONLY = new InheritableThreadLocal<>();
+
+    private final DataSource primary;
+    private final ReadReplicas replicas;
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReadReplicas replicas, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.replicaReads = Counter.builder("inventory.db.reads")
+                .description("Read-only connections handed out, by where they went")
+                .tag("target", "replica")
+                .register(meterRegistry);
+        this.primaryReads = Counter.builder("inventory.db.reads")
+                .description("Read-only connections handed out, by where they went")
+                .tag("target", "primary")
+                .register(meterRegistry);
+    }
+
+    public static void pinToPrimary() {
+        PRIMARY_ONLY.set(new AtomicBoolean(true));
+    }
+
+    public static void unpin() {
+        AtomicBoolean pin = PRIMARY_ONLY.get();
+        if (pin != null) {
+            pin.set(false);
+            PRIMARY_ONLY.remove();
+        }
+    }
+
+    static boolean isPinned() {
+        AtomicBoolean pin = PRIMARY_ONLY.get();
+        return pin != null && pin.get();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!isPinned()) {
+            ReadReplicas.Replica replica = replicas.pick();
+            if (replica != null) {
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replicaReads.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    replica.markDown("no connection: " + e.getMessage());
+                }
+            }
+        }
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        primaryReads.increment();
+        return primary.getConnection(username, password);
+    }
+}
@@ -19,6 +19,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.List;
 
 @Configuration
@@ -36,8 +37,8 @@ public class SecurityConfig {
                 "http://127.0.0.1:3000"
         ));
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
-        config.setAllowedHeaders(List.of("Authorization", "Content-Type", "Accept"));
-        config.setExposedHeaders(List.of("Authorization"));
+        config.setAllowedHeaders(List.of("Authorization", "Content-Type", "Accept", "Idempotency-Key", "Last-Event-ID"));
+        config.setExposedHeaders(List.of("Authorization", "Idempotent-Replayed", "X-Next-Cursor", "ETag"));
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", config);
         return source;
@@ -68,7 +69,10 @@ public class SecurityConfig {
     @Bean
     public JwtDecoder jwtDecoder(
             @Value("${auth.jwt.jwks-uri}") String jwksUri,
-            @Value("${auth.jwt.issuer:}") String issuer) {
+            @Value("${auth.jwt.issuer:}") String issuer,
+            @Value("${auth.jwt.cache.enabled:true}") boolean cacheEnabled,
+            @Value("${auth.jwt.cache.max-size:10000}") long cacheMaxSize,
+            @Value("${auth.jwt.cache.max-ttl:PT5M}") Duration cacheMaxTtl) {
         // Supabase may use ES256 (default) or RS256; NimbusJwtDecoder defaults to RS256 only
         NimbusJwtDecoder decoder = NimbusJwtDecoder.withJwkSetUri(jwksUri)
                 .jwsAlgorithm(SignatureAlgorithm.RS256)
@@ -78,7 +82,8 @@ public class SecurityConfig {
                 ? JwtValidators.createDefaultWithIssuer(issuer)
                 : JwtValidators.createDefault();
         decoder.setJwtValidator(validator);
-        return decoder;
+        // Verified tokens are reused until they expire, so repeat calls skip the signature check
+        return cacheEnabled ? new CachingJwtDecoder(decoder, cacheMaxSize, cacheMaxTtl) : decoder;
     }
 }
 
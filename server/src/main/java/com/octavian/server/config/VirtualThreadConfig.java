@@ -0,0 +1,39 @@
+package com.octavian.server.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Virtual-thread mode is Spring Boot's {@code spring.threads.virtual.enabled}: Tomcat, the
+ * scheduler and the task executor then run on virtual threads. Because thread count no longer
+ * bounds database concurrency, the data source is wrapped in a {@link BulkheadDataSource} sized to
+ * the connection pool (on by default in that mode).
+ */
+@Configuration
+public class VirtualThreadConfig {
+
+    @Bean
+    static OrderedBeanPostProcessor databaseBulkhead(
+            @Value("${inventory.db.bulkhead.enabled:${spring.threads.virtual.enabled:false}}") boolean enabled,
+            @Value("${inventory.db.bulkhead.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+            @Value("${inventory.db.bulkhead.acquire-timeout-ms:5000}") long acquireTimeoutMs,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new OrderedBeanPostProcessor(Ordered.HIGHEST_PRECEDENCE) {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!enabled || !(bean instanceof DataSource dataSource) || bean instanceof BulkheadDataSource) {
+                    return bean;
+                }
+                BulkheadDataSource bulkhead = new BulkheadDataSource(dataSource, maxConcurrent, acquireTimeoutMs);
+                meterRegistry.ifAvailable(bulkhead::bindTo);
+                return bulkhead;
+            }
+        };
+    }
+}
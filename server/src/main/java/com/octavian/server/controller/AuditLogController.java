@@ -2,12 +2,14 @@ package com.octavian.server.controller;
 
 import com.octavian.server.dto.AuditLogResponseDTO;
 import com.octavian.server.service.AuditLogService;
+import com.octavian.server.service.CollectionVersions;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -17,9 +19,16 @@ import java.util.List;
 public class AuditLogController {
 
     private final AuditLogService auditLogService;
+    private final CollectionVersions collectionVersions;
 
     @GetMapping
-    public ResponseEntity<List<AuditLogResponseDTO>> recent(@RequestParam(defaultValue = "50") int limit) {
-        return ResponseEntity.ok(auditLogService.getRecentLogs(limit));
+    public ResponseEntity<List<AuditLogResponseDTO>> recent(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
+            ServletWebRequest request) {
+        if (ConditionalGets.notModified(request, collectionVersions, CollectionVersions.Collection.AUDIT_LOGS)) {
+            return null;
+        }
+        return CursorPages.toResponse(auditLogService.getRecentLogs(limit, cursor));
     }
 }
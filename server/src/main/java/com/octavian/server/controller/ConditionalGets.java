@@ -0,0 +1,41 @@
+package com.octavian.server.controller;
+
+import com.octavian.server.config.ReplicaRoutingDataSource;
+import com.octavian.server.service.CollectionVersions;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Conditional GET for collection listings, checked before any query runs. Responses may be kept
+ * by the browser but must be revalidated, which costs a 304 while the collection is unchanged.
+ * A listing built right after its collection changed is read from the primary, so that the ETag
+ * never describes a change the replica's rows do not show yet.
+ */
+final class ConditionalGets {
+
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private ConditionalGets() {
+    }
+
+    /**
+     * True when the client's copy is current; the caller then returns {@code null} and the client
+     * gets 304 Not Modified. Otherwise the ETag is set and the caller builds the response as usual.
+     */
+    static boolean notModified(ServletWebRequest request, CollectionVersions versions, CollectionVersions.Collection collection) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        if (request.checkNotModified(versions.etag(collection))) {
+            return true;
+        }
+        if (versions.isAheadOfReplicas(collection)) {
+            ReplicaRoutingDataSource.pinToPrimary();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,28 @@
+package com.octavian.server.controller;
+
+import com.octavian.server.dto.DashboardDTO;
+import com.octavian.server.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    /** {@code limit} applies to each list (low stock, movements, audit entries), at most 50. */
+    @GetMapping
+    public ResponseEntity<DashboardDTO> getDashboard(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(dashboardService.getDashboard(jwt, limit));
+    }
+}
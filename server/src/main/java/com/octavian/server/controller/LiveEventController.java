@@ -0,0 +1,44 @@
+package com.octavian.server.controller;
+
+import com.octavian.server.service.LiveEventService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/v1/live")
+@RequiredArgsConstructor
+public class LiveEventController {
+
+    private final LiveEventService liveEventService;
+
+    /**
+     * Server-Sent Events stream of committed {@code stock-movement} and {@code audit-log} events.
+     * {@code topics} narrows it to {@code stock-movements} and/or {@code audit-logs}. Resume with the
+     * {@code Last-Event-ID} header (or {@code lastEventId} parameter); a {@code reset} event means
+     * the gap could not be replayed and the listings should be reloaded.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(
+            @RequestParam(required = false) List<String> topics,
+            @RequestParam(required = false) String lastEventId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader) {
+        Set<String> selected = topics == null || topics.isEmpty() ? LiveEventService.TOPICS : new LinkedHashSet<>(topics);
+        for (String topic : selected) {
+            if (!LiveEventService.TOPICS.contains(topic)) {
+                throw new IllegalArgumentException("Unknown topic: " + topic + ". Use "
+                        + LiveEventService.STOCK_MOVEMENTS + " or " + LiveEventService.AUDIT_LOGS);
+            }
+        }
+        return liveEventService.open(selected, lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+}
@@ -1,21 +1,36 @@
 package com.octavian.server.controller;
 
 import com.octavian.server.dto.ProductCreateDTO;
+import com.octavian.server.dto.ProductFilterDTO;
+import com.octavian.server.dto.ProductImportResultDTO;
 import com.octavian.server.dto.ProductResponseDTO;
+import com.octavian.server.dto.StockAsOfDTO;
 import com.octavian.server.dto.StockAdjustmentDTO;
 import com.octavian.server.model.AuditActionType;
 import com.octavian.server.model.StockMovementType;
+import com.octavian.server.repository.ProductSort;
 import com.octavian.server.service.AuditLogService;
+import com.octavian.server.service.CollectionVersions;
+import com.octavian.server.service.ProductImportService;
+import com.octavian.server.service.ProductSearchService;
 import com.octavian.server.service.ProductService;
+import com.octavian.server.service.StockCheckpointService;
 import com.octavian.server.service.StockMovementService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -25,8 +40,12 @@ import java.util.UUID;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductSearchService productSearchService;
     private final StockMovementService stockMovementService;
+    private final StockCheckpointService stockCheckpointService;
     private final AuditLogService auditLogService;
+    private final CollectionVersions collectionVersions;
 
     @PostMapping
     public ResponseEntity<ProductResponseDTO> createProduct(
@@ -46,10 +65,66 @@ public class ProductController {
         return new ResponseEntity<>(createdProduct, HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ProductImportResultDTO> importCsv(
+            @AuthenticationPrincipal Jwt jwt,
+            InputStream body) {
+        return importProducts(jwt, body, ProductImportService.Format.CSV);
+    }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<ProductImportResultDTO> importNdjson(
+            @AuthenticationPrincipal Jwt jwt,
+            InputStream body) {
+        return importProducts(jwt, body, ProductImportService.Format.NDJSON);
+    }
+
     @GetMapping
-    public ResponseEntity<List<ProductResponseDTO>> getAllProducts() {
-        List<ProductResponseDTO> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductResponseDTO>> getAllProducts(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Boolean lowStock,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "sku") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String cursor,
+            ServletWebRequest request) {
+        if (ConditionalGets.notModified(request, collectionVersions, CollectionVersions.Collection.PRODUCTS)) {
+            return null;
+        }
+        ProductFilterDTO filter = new ProductFilterDTO(category, lowStock, minPrice, maxPrice);
+        return CursorPages.toResponse(productService.getProducts(
+                filter, ProductSort.fromParameter(sort), Sort.Direction.fromString(direction), limit, cursor));
+    }
+
+    @GetMapping("/low-stock")
+    public ResponseEntity<List<ProductResponseDTO>> getLowStockProducts(
+            @RequestParam(defaultValue = "50") int limit,
+            ServletWebRequest request) {
+        if (ConditionalGets.notModified(request, collectionVersions, CollectionVersions.Collection.PRODUCTS)) {
+            return null;
+        }
+        return ResponseEntity.ok(productService.getLowStockProducts(limit));
+    }
+
+    /** Stock of every product as of {@code asOf}, streamed as NDJSON in id order. */
+    @GetMapping("/stock")
+    public ResponseEntity<StreamingResponseBody> getAllStockAsOf(@RequestParam Instant asOf) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(out -> stockCheckpointService.exportStockAsOf(asOf, out));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductResponseDTO>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit,
+            ServletWebRequest request) {
+        if (ConditionalGets.notModified(request, collectionVersions, CollectionVersions.Collection.PRODUCTS)) {
+            return null;
+        }
+        return ResponseEntity.ok(productSearchService.search(q, limit));
     }
 
     @GetMapping("/{id}")
@@ -58,6 +133,11 @@ public class ProductController {
         return ResponseEntity.ok(product);
     }
 
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<StockAsOfDTO> getStockAsOf(@PathVariable UUID id, @RequestParam Instant asOf) {
+        return ResponseEntity.ok(stockCheckpointService.getStockAsOf(id, asOf));
+    }
+
     @PatchMapping("/{id}/stock")
     public ResponseEntity<ProductResponseDTO> updateStock(
             @AuthenticationPrincipal Jwt jwt,
@@ -84,4 +164,22 @@ public class ProductController {
         }
         return ResponseEntity.ok(updatedProduct);
     }
+
+    private ResponseEntity<ProductImportResultDTO> importProducts(
+            Jwt jwt,
+            InputStream body,
+            ProductImportService.Format format) {
+        ProductImportResultDTO result = productImportService.importProducts(body, format);
+        if (jwt != null && result.importedRows() > 0) {
+            auditLogService.log(
+                    jwt,
+                    AuditActionType.PRODUCT_CREATED,
+                    "PRODUCT",
+                    null,
+                    "Imported " + result.importedRows() + " products (" + result.failedRows() + " rows rejected)",
+                    format.name()
+            );
+        }
+        return ResponseEntity.ok(result);
+    }
 }
@@ -0,0 +1,31 @@
+package com.octavian.server.controller;
+
+import com.octavian.server.dto.DailyStockDTO;
+import com.octavian.server.service.StockRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/reports")
+@RequiredArgsConstructor
+public class ReportController {
+
+    private final StockRollupService stockRollupService;
+
+    @GetMapping("/daily-stock")
+    public ResponseEntity<List<DailyStockDTO>> getDailyStock(
+            @RequestParam UUID productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(stockRollupService.getDailyStock(productId, from, to));
+    }
+}
@@ -0,0 +1,28 @@
+package com.octavian.server.controller;
+
+import com.octavian.server.dto.InventoryStatsDTO;
+import com.octavian.server.service.CollectionVersions;
+import com.octavian.server.service.InventoryValuation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+@RestController
+@RequestMapping("/api/v1/stats")
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final InventoryValuation inventoryValuation;
+    private final CollectionVersions collectionVersions;
+
+    @GetMapping("/inventory")
+    public ResponseEntity<InventoryStatsDTO> getInventoryStats(ServletWebRequest request) {
+        if (ConditionalGets.notModified(request, collectionVersions, CollectionVersions.Collection.PRODUCTS)) {
+            return null;
+        }
+        return ResponseEntity.ok(inventoryValuation.getStats());
+    }
+}
@@ -1,56 +1,155 @@
 package com.octavian.server.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.octavian.server.dto.StockMovementBatchCreateDTO;
 import com.octavian.server.dto.StockMovementCreateDTO;
+import com.octavian.server.dto.StockMovementExportQuery;
 import com.octavian.server.dto.StockMovementResponseDTO;
 import com.octavian.server.model.AuditActionType;
 import com.octavian.server.service.AuditLogService;
+import com.octavian.server.service.CollectionVersions;
+import com.octavian.server.service.IdempotencyService;
+import com.octavian.server.service.StockMovementExportService;
 import com.octavian.server.service.StockMovementService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/stock-movements")
 @RequiredArgsConstructor
 public class StockMovementController {
 
+    private static final int EXPORT_GZIP_BUFFER_SIZE = 64 * 1024;
+
     private final StockMovementService stockMovementService;
     private final AuditLogService auditLogService;
+    private final IdempotencyService idempotencyService;
+    private final StockMovementExportService stockMovementExportService;
+    private final CollectionVersions collectionVersions;
 
     @PostMapping
     public ResponseEntity<StockMovementResponseDTO> create(
             @AuthenticationPrincipal Jwt jwt,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody StockMovementCreateDTO dto) {
-        StockMovementResponseDTO created = stockMovementService.createMovement(dto, jwt);
-        if (jwt != null) {
-            AuditActionType auditType = switch (dto.type()) {
-                case RECEIVING -> AuditActionType.STOCK_RECEIVING;
-                case TRANSFER -> AuditActionType.STOCK_TRANSFER;
-                case ADJUSTMENT -> AuditActionType.STOCK_ADJUSTMENT;
-            };
-            String description = dto.type() + ": " + (dto.adjustment() >= 0 ? "+" : "") + dto.adjustment()
-                    + " units for " + created.sku() + " – " + created.productName();
-            auditLogService.log(
-                    jwt,
-                    auditType,
-                    "STOCK_MOVEMENT",
-                    created.id(),
-                    description,
-                    dto.note()
-            );
-        }
-        return new ResponseEntity<>(created, HttpStatus.CREATED);
+        // With group commit the movement commits in the committer's transaction, not the key's
+        boolean joinsTransaction = !stockMovementService.isGroupCommitEnabled();
+        return idempotencyService.execute(jwt, idempotencyKey, dto, StockMovementResponseDTO.class, joinsTransaction, () -> {
+            StockMovementResponseDTO created = stockMovementService.createMovement(dto, jwt);
+            if (jwt != null) {
+                AuditLogService.AuditEntry entry = toAuditEntry(dto, created);
+                auditLogService.log(
+                        jwt,
+                        entry.actionType(),
+                        entry.entityType(),
+                        entry.entityId(),
+                        entry.description(),
+                        entry.details()
+                );
+            }
+            return new ResponseEntity<>(created, HttpStatus.CREATED);
+        });
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<StockMovementResponseDTO>> createBatch(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody StockMovementBatchCreateDTO dto) {
+        return idempotencyService.execute(jwt, idempotencyKey, dto, new TypeReference<>() {
+        }, true, () -> {
+            List<StockMovementResponseDTO> created = stockMovementService.createMovements(dto.lines(), jwt);
+            if (jwt != null) {
+                List<AuditLogService.AuditEntry> entries = new ArrayList<>(created.size());
+                for (int i = 0; i < created.size(); i++) {
+                    entries.add(toAuditEntry(dto.lines().get(i), created.get(i)));
+                }
+                auditLogService.logAll(jwt, entries);
+            }
+            return new ResponseEntity<>(created, HttpStatus.CREATED);
+        });
     }
 
     @GetMapping
-    public ResponseEntity<List<StockMovementResponseDTO>> recent(@RequestParam(defaultValue = "50") int limit) {
-        return ResponseEntity.ok(stockMovementService.getRecentMovements(limit));
+    public ResponseEntity<List<StockMovementResponseDTO>> recent(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
+            ServletWebRequest request) {
+        if (ConditionalGets.notModified(request, collectionVersions, CollectionVersions.Collection.STOCK_MOVEMENTS)) {
+            return null;
+        }
+        return CursorPages.toResponse(stockMovementService.getRecentMovements(limit, cursor));
+    }
+
+    /**
+     * Streams the ledger oldest first as NDJSON or CSV, gzip-compressed when the client accepts it.
+     * {@code from} is inclusive and {@code to} exclusive, both ISO-8601 instants.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) UUID productId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        StockMovementExportQuery query = new StockMovementExportQuery(from, to, productId);
+        StockMovementExportService.Format exportFormat = switch (format.toLowerCase(Locale.ROOT)) {
+            case "csv" -> StockMovementExportService.Format.CSV;
+            case "ndjson" -> StockMovementExportService.Format.NDJSON;
+            default -> throw new IllegalArgumentException("Unsupported export format: " + format + ". Use csv or ndjson");
+        };
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat == StockMovementExportService.Format.CSV
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("stock-movements." + format.toLowerCase(Locale.ROOT))
+                        .build()
+                        .toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(out -> {
+            if (!gzip) {
+                stockMovementExportService.export(query, exportFormat, out);
+                return;
+            }
+            GZIPOutputStream compressed = new GZIPOutputStream(out, EXPORT_GZIP_BUFFER_SIZE);
+            stockMovementExportService.export(query, exportFormat, compressed);
+            compressed.finish();
+        });
+    }
+
+    private static AuditLogService.AuditEntry toAuditEntry(StockMovementCreateDTO dto, StockMovementResponseDTO created) {
+        AuditActionType auditType = switch (dto.type()) {
+            case RECEIVING -> AuditActionType.STOCK_RECEIVING;
+            case TRANSFER -> AuditActionType.STOCK_TRANSFER;
+            case ADJUSTMENT -> AuditActionType.STOCK_ADJUSTMENT;
+        };
+        String description = dto.type() + ": " + (dto.adjustment() >= 0 ? "+" : "") + dto.adjustment()
+                + " units for " + created.sku() + " – " + created.productName();
+        return new AuditLogService.AuditEntry(auditType, "STOCK_MOVEMENT", created.id(), description, dto.note());
     }
 }
 
@@ -0,0 +1,13 @@
+package com.octavian.server.dto;
+
+import java.math.BigDecimal;
+
+public record CategoryStatsDTO(
+        String category,
+        long products,
+        long units,
+        BigDecimal value,
+        long lowStockProducts,
+        long outOfStockProducts
+) {
+}
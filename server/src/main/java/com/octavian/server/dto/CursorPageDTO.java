@@ -0,0 +1,12 @@
+package com.octavian.server.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is null on the last page.
+ */
+public record CursorPageDTO<T>(
+        List<T> items,
+        String nextCursor
+) {
+}
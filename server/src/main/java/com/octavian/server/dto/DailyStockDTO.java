@@ -0,0 +1,14 @@
+package com.octavian.server.dto;
+
+import java.time.LocalDate;
+
+public record DailyStockDTO(
+        LocalDate day,
+        int openingStock,
+        int closingStock,
+        int received,
+        int transferred,
+        int adjusted,
+        int movementCount
+) {
+}
@@ -0,0 +1,17 @@
+package com.octavian.server.dto;
+
+import java.util.List;
+
+/**
+ * Everything the dashboard shows, gathered in one request. A section that failed or did not finish
+ * in time is null and listed in {@code degraded}; the others are still filled in.
+ */
+public record DashboardDTO(
+        UserResponseDTO currentUser,
+        InventoryStatsDTO stats,
+        List<ProductResponseDTO> lowStock,
+        List<StockMovementResponseDTO> recentMovements,
+        List<AuditLogResponseDTO> recentAuditLogs,
+        List<String> degraded
+) {
+}
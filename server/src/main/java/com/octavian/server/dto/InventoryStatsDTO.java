@@ -0,0 +1,18 @@
+package com.octavian.server.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Catalog totals: {@code value} is the sum of {@code price * stockQuantity}; low stock counts
+ * products above zero but at or below their minimum level, out of stock those at zero.
+ */
+public record InventoryStatsDTO(
+        long products,
+        long units,
+        BigDecimal value,
+        long lowStockProducts,
+        long outOfStockProducts,
+        List<CategoryStatsDTO> categories
+) {
+}
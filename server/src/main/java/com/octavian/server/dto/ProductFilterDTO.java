@@ -0,0 +1,15 @@
+package com.octavian.server.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Optional product listing filters; null means "don't filter". Low stock means at or below the
+ * product's minimum stock level.
+ */
+public record ProductFilterDTO(
+        String category,
+        Boolean lowStock,
+        BigDecimal minPrice,
+        BigDecimal maxPrice
+) {
+}
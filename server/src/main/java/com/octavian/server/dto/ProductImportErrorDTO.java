@@ -0,0 +1,8 @@
+package com.octavian.server.dto;
+
+public record ProductImportErrorDTO(
+        long row,
+        String sku,
+        String message
+) {
+}
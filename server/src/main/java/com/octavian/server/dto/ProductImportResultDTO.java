@@ -0,0 +1,12 @@
+package com.octavian.server.dto;
+
+import java.util.List;
+
+public record ProductImportResultDTO(
+        long totalRows,
+        long importedRows,
+        long failedRows,
+        List<ProductImportErrorDTO> errors,
+        boolean errorsTruncated
+) {
+}
@@ -0,0 +1,12 @@
+package com.octavian.server.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record StockAsOfDTO(
+        UUID productId,
+        String sku,
+        Instant asOf,
+        Integer stockQuantity
+) {
+}
@@ -0,0 +1,14 @@
+package com.octavian.server.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record StockMovementBatchCreateDTO(
+        @NotEmpty(message = "lines must not be empty")
+        @Size(max = 1000, message = "A batch can contain at most 1000 lines")
+        List<@Valid StockMovementCreateDTO> lines
+) {
+}
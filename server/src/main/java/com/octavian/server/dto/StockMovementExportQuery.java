@@ -0,0 +1,19 @@
+package com.octavian.server.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Filters for the movement export: {@code from} inclusive, {@code to} exclusive, all optional.
+ */
+public record StockMovementExportQuery(
+        Instant from,
+        Instant to,
+        UUID productId
+) {
+    public StockMovementExportQuery {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+    }
+}
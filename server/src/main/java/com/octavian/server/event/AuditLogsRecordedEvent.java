@@ -0,0 +1,11 @@
+package com.octavian.server.event;
+
+import com.octavian.server.dto.AuditLogResponseDTO;
+
+import java.util.List;
+
+/**
+ * Published inside the transaction that wrote a batch of audit entries, in insertion order.
+ */
+public record AuditLogsRecordedEvent(List<AuditLogResponseDTO> logs) {
+}
@@ -0,0 +1,10 @@
+package com.octavian.server.event;
+
+import java.time.Instant;
+
+/**
+ * Published inside the transaction that detached or dropped old partitions of {@code table}
+ * ({@code stock_movements} or {@code audit_logs}); no rows older than {@code before} remain.
+ */
+public record HistoryRetiredEvent(String table, Instant before) {
+}
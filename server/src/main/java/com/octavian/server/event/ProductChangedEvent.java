@@ -0,0 +1,22 @@
+package com.octavian.server.event;
+
+import com.octavian.server.dto.ProductResponseDTO;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Published inside the transaction that created or changed a product, carrying the product as
+ * written. Listeners that keep derived state should react after commit.
+ * <p>
+ * Writers publish while holding the product's row lock, so for any one product the
+ * {@code sequence} follows commit order even when after-commit listeners run out of order.
+ * Sequences are node-local.
+ */
+public record ProductChangedEvent(ProductResponseDTO product, long sequence) {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    public ProductChangedEvent(ProductResponseDTO product) {
+        this(product, SEQUENCE.incrementAndGet());
+    }
+}
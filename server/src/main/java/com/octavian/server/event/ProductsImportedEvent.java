@@ -0,0 +1,10 @@
+package com.octavian.server.event;
+
+import java.util.UUID;
+
+/**
+ * Published inside a bulk import transaction. Imported ids are time-ordered and generated after
+ * {@code idsAfter}, so listeners can read exactly the new rows with an id range scan.
+ */
+public record ProductsImportedEvent(UUID idsAfter, long importedRows) {
+}
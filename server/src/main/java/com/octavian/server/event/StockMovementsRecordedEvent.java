@@ -0,0 +1,12 @@
+package com.octavian.server.event;
+
+import com.octavian.server.dto.StockMovementResponseDTO;
+
+import java.util.List;
+
+/**
+ * Published inside the transaction that inserted the movements, in insertion order. Listeners
+ * that push them to clients should react after commit.
+ */
+public record StockMovementsRecordedEvent(List<StockMovementResponseDTO> movements) {
+}
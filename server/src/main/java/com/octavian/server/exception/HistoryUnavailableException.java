@@ -0,0 +1,7 @@
+package com.octavian.server.exception;
+
+public class HistoryUnavailableException extends RuntimeException {
+    public HistoryUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,32 @@
+package com.octavian.server.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Position in {@code stock_movements} up to which a report table has been brought up to date,
+ * as the {@code (created_at, id)} of the last movement included. {@code stock_movements_retired}
+ * instead marks where the movements left after partition retirement begin.
+ */
+@Entity
+@Table(name = "report_watermarks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportWatermark {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(nullable = false)
+    private Instant lastCreatedAt;
+
+    @Column(nullable = false)
+    private UUID lastId;
+}
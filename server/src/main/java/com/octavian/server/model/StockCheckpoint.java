@@ -0,0 +1,42 @@
+package com.octavian.server.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Stock of a product as of {@code takenAt}, covering every movement up to that instant. A checkpoint
+ * run only writes rows for products that moved since the previous run.
+ */
+@Entity
+@Table(name = "stock_checkpoints")
+@IdClass(StockCheckpoint.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockCheckpoint {
+
+    // Hibernate orders composite key columns by attribute name, giving (product_id, taken_at)
+    @Id
+    @Column(name = "product_id")
+    private UUID productId;
+
+    @Id
+    private Instant takenAt;
+
+    @Column(nullable = false)
+    private Integer stockQuantity;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID productId;
+        private Instant takenAt;
+    }
+}
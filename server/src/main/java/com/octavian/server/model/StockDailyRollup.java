@@ -0,0 +1,58 @@
+package com.octavian.server.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Stock movements of one product on one UTC day, aggregated. Only days with movements have a row;
+ * {@code received}, {@code transferred} and {@code adjusted} are the net adjustment per movement type.
+ */
+@Entity
+@Table(name = "stock_daily_rollups")
+@IdClass(StockDailyRollup.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockDailyRollup {
+
+    // Hibernate orders composite key columns by attribute name; productId < rollupDate gives the
+    // (product_id, rollup_date) primary key that per-product range reads need.
+    @Id
+    @Column(name = "product_id")
+    private UUID productId;
+
+    @Id
+    private LocalDate rollupDate;
+
+    @Column(nullable = false)
+    private Integer openingStock;
+
+    @Column(nullable = false)
+    private Integer closingStock;
+
+    @Column(nullable = false)
+    private Integer received;
+
+    @Column(nullable = false)
+    private Integer transferred;
+
+    @Column(nullable = false)
+    private Integer adjusted;
+
+    @Column(nullable = false)
+    private Integer movementCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID productId;
+        private LocalDate rollupDate;
+    }
+}
@@ -7,7 +7,10 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "stock_movements")
+@Table(name = "stock_movements", indexes = {
+        @Index(name = "idx_stock_movements_created_at", columnList = "createdAt, id"),
+        @Index(name = "idx_stock_movements_product_created_at", columnList = "product_id, createdAt, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,7 +19,7 @@ import java.util.UUID;
 public class StockMovement {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -0,0 +1,54 @@
+package com.octavian.server.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RFC 9562 version 7 UUIDs: 48-bit Unix epoch milliseconds, a 12-bit counter in {@code rand_a} and
+ * 62 random bits. The millisecond and counter share one atomic value, so ids are strictly
+ * increasing across all threads of this JVM, even within one millisecond or if the clock steps
+ * back; a counter overflow borrows from the next millisecond.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    private static final int COUNTER_BITS = 12;
+    /** A new millisecond starts the counter in the lower quarter, leaving room before it overflows. */
+    private static final int COUNTER_SEED_BOUND = 1 << (COUNTER_BITS - 2);
+
+    private static final AtomicLong LAST = new AtomicLong();
+
+    public static UUID next() {
+        long now = System.currentTimeMillis();
+        long state;
+        long prev;
+        do {
+            prev = LAST.get();
+            state = now > (prev >>> COUNTER_BITS)
+                    ? (now << COUNTER_BITS) | ThreadLocalRandom.current().nextInt(COUNTER_SEED_BOUND)
+                    : prev + 1;
+        } while (!LAST.compareAndSet(prev, state));
+
+        long millis = state >>> COUNTER_BITS;
+        long counter = state & ((1L << COUNTER_BITS) - 1);
+        long msb = (millis << 16) | (0x7L << 12) | counter;
+        long lsb = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -1,17 +1,25 @@
 package com.octavian.server.repository;
 
 import com.octavian.server.model.AuditLog;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.UUID;
 
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, UUID> {
 
     @EntityGraph(attributePaths = {"user"})
-    Page<AuditLog> findAllByOrderByCreatedAtDesc(Pageable pageable);
+    Slice<AuditLog> findAllByOrderByCreatedAtDescIdDesc(Pageable pageable);
+
+    /** The page after the row at {@code (createdAt, id)}; the row comparison maps straight onto the (created_at, id) index. */
+    @EntityGraph(attributePaths = {"user"})
+    @Query("SELECT a FROM AuditLog a WHERE (a.createdAt, a.id) < (:createdAt, :id) ORDER BY a.createdAt DESC, a.id DESC")
+    Slice<AuditLog> findPageBefore(@Param("createdAt") Instant createdAt, @Param("id") UUID id, Pageable pageable);
 }
@@ -0,0 +1,49 @@
+package com.octavian.server.repository;
+
+import com.octavian.server.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Claims the key for a new request. Succeeds (returns 1) when the key is unused or expired; a
+     * claim that never stored a response is only taken over once it has expired. Waits for a
+     * concurrent claim of the same key to commit or roll back.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO idempotency_keys (id, request_hash, created_at, expires_at)
+            VALUES (:id, :requestHash, :now, :expiresAt)
+            ON CONFLICT (id) DO UPDATE
+            SET request_hash = EXCLUDED.request_hash,
+                response_status = NULL,
+                response_body = NULL,
+                created_at = EXCLUDED.created_at,
+                expires_at = EXCLUDED.expires_at
+            WHERE idempotency_keys.expires_at < EXCLUDED.created_at
+            """, nativeQuery = true)
+    int claim(
+            @Param("id") String id,
+            @Param("requestHash") String requestHash,
+            @Param("now") Instant now,
+            @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Query("update IdempotencyRecord r set r.responseStatus = :status, r.responseBody = :body where r.id = :id")
+    int complete(@Param("id") String id, @Param("status") int status, @Param("body") String body);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.id = :id and r.responseStatus is null")
+    int release(@Param("id") String id);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -1,12 +1,105 @@
 package com.octavian.server.repository;
 
+import com.octavian.server.dto.ProductResponseDTO;
 import com.octavian.server.model.Product;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, UUID> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, ProductRepositoryCustom {
     boolean existsBySku(String sku);
+
+    /**
+     * Adds {@code delta} to the stock in one conditional statement. Returns the updated row, or empty
+     * when the product does not exist or the result would be negative (nothing is written then).
+     */
+    @Query(value = """
+            UPDATE products
+            SET stock_quantity = stock_quantity + :delta
+            WHERE id = :id AND stock_quantity + :delta >= 0
+            RETURNING id, sku, name, category, price,
+                      stock_quantity AS "stockQuantity", min_stock_level AS "minStockLevel"
+            """, nativeQuery = true)
+    Optional<ProductStockView> applyStockDelta(@Param("id") UUID id, @Param("delta") int delta);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.id = :id")
+    Optional<Product> findForUpdateById(@Param("id") UUID id);
+
+    /**
+     * Locks all given products in id order, so concurrent multi-product writers cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.id in :ids order by p.id")
+    List<Product> findAllForUpdateByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("select p.stockQuantity from Product p where p.id = :id")
+    Optional<Integer> findStockQuantityById(@Param("id") UUID id);
+
+    /** Products with an id greater than {@code after}, in id order; for batched full or incremental scans. */
+    @Query("""
+            select new com.octavian.server.dto.ProductResponseDTO(
+                p.id, p.sku, p.name, p.category, p.price, p.stockQuantity, p.minStockLevel)
+            from Product p
+            where p.id > :after
+            order by p.id
+            """)
+    List<ProductResponseDTO> findAllAfterId(@Param("after") UUID after, Limit limit);
+
+    /**
+     * Products at or below their minimum stock level with an id greater than {@code after}, in id
+     * order. Served by the partial {@code idx_products_low_stock} index.
+     */
+    @Query("""
+            select new com.octavian.server.dto.ProductResponseDTO(
+                p.id, p.sku, p.name, p.category, p.price, p.stockQuantity, p.minStockLevel)
+            from Product p
+            where p.stockQuantity <= p.minStockLevel and p.id > :after
+            order by p.id
+            """)
+    List<ProductResponseDTO> findLowStockAfterId(@Param("after") UUID after);
+
+    /** Products at or below their minimum stock level, furthest below it first. */
+    @Query("""
+            select new com.octavian.server.dto.ProductResponseDTO(
+                p.id, p.sku, p.name, p.category, p.price, p.stockQuantity, p.minStockLevel)
+            from Product p
+            where p.stockQuantity <= p.minStockLevel
+            order by p.minStockLevel - p.stockQuantity desc, p.id
+            """)
+    List<ProductResponseDTO> findLowStock(Limit limit);
+
+    /**
+     * SKU prefix or name/category substring match; {@code prefix} and {@code contains} are LIKE
+     * patterns. Served by the trigram and {@code lower(sku)} indexes when they exist.
+     */
+    @Query(value = """
+            SELECT id FROM products
+            WHERE lower(sku) LIKE :prefix OR name ILIKE :contains OR category ILIKE :contains
+            ORDER BY lower(sku) LIKE :prefix DESC, name ILIKE :contains DESC, sku
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<UUID> searchIdsByPattern(@Param("prefix") String prefix, @Param("contains") String contains, @Param("limit") int limit);
+
+    /**
+     * Names containing a word similar to {@code query} by pg_trgm's {@code <%} operator, best match
+     * first; tolerates typos without penalising long names.
+     */
+    @Query(value = """
+            SELECT id FROM products
+            WHERE :query <% name
+            ORDER BY word_similarity(:query, name) DESC, sku
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<UUID> searchIdsBySimilarity(@Param("query") String query, @Param("limit") int limit);
 }
@@ -0,0 +1,24 @@
+package com.octavian.server.repository;
+
+import com.octavian.server.dto.ProductFilterDTO;
+import com.octavian.server.dto.ProductResponseDTO;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Up to {@code limit} products matching {@code filter}, ordered by {@code (sort, id)} and starting
+     * after the given key (both null for the first page). Rows are projected straight into DTOs, so
+     * nothing enters the persistence context.
+     */
+    List<ProductResponseDTO> findPage(
+            ProductFilterDTO filter,
+            ProductSort sort,
+            Sort.Direction direction,
+            Comparable<?> afterValue,
+            UUID afterId,
+            int limit);
+}
@@ -0,0 +1,81 @@
+package com.octavian.server.repository;
+
+import com.octavian.server.dto.ProductFilterDTO;
+import com.octavian.server.dto.ProductResponseDTO;
+import com.octavian.server.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<ProductResponseDTO> findPage(
+            ProductFilterDTO filter,
+            ProductSort sort,
+            Sort.Direction direction,
+            Comparable<?> afterValue,
+            UUID afterId,
+            int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductResponseDTO> query = cb.createQuery(ProductResponseDTO.class);
+        Root<Product> product = query.from(Product.class);
+        query.select(cb.construct(ProductResponseDTO.class,
+                product.get("id"),
+                product.get("sku"),
+                product.get("name"),
+                product.get("category"),
+                product.get("price"),
+                product.get("stockQuantity"),
+                product.get("minStockLevel")));
+
+        List<Predicate> where = new ArrayList<>();
+        if (filter.category() != null) {
+            where.add(cb.equal(product.get("category"), filter.category()));
+        }
+        if (filter.lowStock() != null) {
+            Expression<Integer> stock = product.get("stockQuantity");
+            Expression<Integer> minimum = product.get("minStockLevel");
+            where.add(filter.lowStock() ? cb.le(stock, minimum) : cb.gt(stock, minimum));
+        }
+        if (filter.minPrice() != null) {
+            where.add(cb.ge(product.get("price"), filter.minPrice()));
+        }
+        if (filter.maxPrice() != null) {
+            where.add(cb.le(product.get("price"), filter.maxPrice()));
+        }
+
+        boolean ascending = direction.isAscending();
+        Expression<Comparable> key = product.get(sort.attribute());
+        Expression<UUID> id = product.get("id");
+        if (afterId != null) {
+            // (key, id) > (value, afterId), spelled out because criteria queries have no row values. The
+            // leading key >= value is what lets the planner start a range scan on the (key, id) index.
+            Comparable value = afterValue;
+            where.add(ascending
+                    ? cb.and(cb.greaterThanOrEqualTo(key, value),
+                            cb.or(cb.greaterThan(key, value), cb.greaterThan(id, afterId)))
+                    : cb.and(cb.lessThanOrEqualTo(key, value),
+                            cb.or(cb.lessThan(key, value), cb.lessThan(id, afterId))));
+        }
+
+        query.where(where.toArray(Predicate[]::new))
+                .orderBy(ascending ? cb.asc(key) : cb.desc(key), ascending ? cb.asc(id) : cb.desc(id));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,43 @@
+package com.octavian.server.repository;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Sort keys for the product listing. Only non-null columns with a {@code (key, id)}
+ * index are offered, so a keyset page is always well defined and never sorts the
+ * table. Stock quantity is deliberately not one: it changes with every movement and
+ * an index on it would cost every stock write.
+ */
+public enum ProductSort {
+    SKU("sku", value -> value),
+    NAME("name", value -> value),
+    PRICE("price", BigDecimal::new);
+
+    private final String attribute;
+    private final Function<String, Comparable<?>> parser;
+
+    ProductSort(String attribute, Function<String, Comparable<?>> parser) {
+        this.attribute = attribute;
+        this.parser = parser;
+    }
+
+    public String attribute() {
+        return attribute;
+    }
+
+    /** Parses a key value written with {@code toString()} back into the attribute's type. */
+    public Comparable<?> parseValue(String value) {
+        return parser.apply(value);
+    }
+
+    /** Accepts the attribute name as used in JSON ({@code price}), case-insensitively. */
+    public static ProductSort fromParameter(String parameter) {
+        return Arrays.stream(values())
+                .filter(sort -> sort.attribute.equalsIgnoreCase(parameter.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported sort: " + parameter
+                        + ". Use one of sku, name, price"));
+    }
+}
@@ -0,0 +1,24 @@
+package com.octavian.server.repository;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Product row as returned by a conditional stock update.
+ */
+public interface ProductStockView {
+
+    UUID getId();
+
+    String getSku();
+
+    String getName();
+
+    String getCategory();
+
+    BigDecimal getPrice();
+
+    Integer getStockQuantity();
+
+    Integer getMinStockLevel();
+}
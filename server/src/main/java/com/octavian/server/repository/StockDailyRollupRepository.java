@@ -0,0 +1,20 @@
+package com.octavian.server.repository;
+
+import com.octavian.server.model.StockDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface StockDailyRollupRepository extends JpaRepository<StockDailyRollup, StockDailyRollup.Key> {
+
+    List<StockDailyRollup> findByProductIdAndRollupDateBetweenOrderByRollupDate(UUID productId, LocalDate from, LocalDate to);
+
+    Optional<StockDailyRollup> findFirstByProductIdAndRollupDateLessThanOrderByRollupDateDesc(UUID productId, LocalDate day);
+
+    Optional<StockDailyRollup> findFirstByProductIdAndRollupDateGreaterThanEqualOrderByRollupDate(UUID productId, LocalDate day);
+}
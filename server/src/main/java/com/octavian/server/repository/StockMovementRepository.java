@@ -1,18 +1,26 @@
 package com.octavian.server.repository;
 
 import com.octavian.server.model.StockMovement;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.UUID;
 
 @Repository
 public interface StockMovementRepository extends JpaRepository<StockMovement, UUID> {
 
     @EntityGraph(attributePaths = {"performedBy"})
-    Page<StockMovement> findAllByOrderByCreatedAtDesc(Pageable pageable);
+    Slice<StockMovement> findAllByOrderByCreatedAtDescIdDesc(Pageable pageable);
+
+    /** The page after the row at {@code (createdAt, id)}; the row comparison maps straight onto the (created_at, id) index. */
+    @EntityGraph(attributePaths = {"performedBy"})
+    @Query("SELECT m FROM StockMovement m WHERE (m.createdAt, m.id) < (:createdAt, :id) ORDER BY m.createdAt DESC, m.id DESC")
+    Slice<StockMovement> findPageBefore(@Param("createdAt") Instant createdAt, @Param("id") UUID id, Pageable pageable);
 }
 
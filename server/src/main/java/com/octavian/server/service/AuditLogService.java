@@ -1,55 +1,284 @@
 package com.octavian.server.service;
 
 import com.octavian.server.dto.AuditLogResponseDTO;
+import com.octavian.server.dto.CursorPageDTO;
+import com.octavian.server.event.AuditLogsRecordedEvent;
 import com.octavian.server.model.AuditActionType;
 import com.octavian.server.model.AuditLog;
 import com.octavian.server.model.User;
 import com.octavian.server.repository.AuditLogRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Audit entries are written asynchronously by default: {@link #log} only puts the entry on a
+ * bounded queue and a background writer flushes batches (multi-row inserts) when
+ * {@code batch-size} entries are waiting or {@code flush-interval-ms} has passed. When the queue is
+ * full the caller either waits up to {@code block-timeout-ms} (BLOCK) or the entry is shed at once
+ * (DROP); shed entries are counted. The queue is drained on shutdown.
+ * <p>
+ * Entries logged inside a transaction are only queued once it commits, so an action that rolls
+ * back leaves no audit trail or live event behind. Written synchronously, they join the caller's
+ * transaction instead.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class AuditLogService {
 
+    public enum OverflowPolicy {
+        BLOCK,
+        DROP
+    }
+
+    public record AuditEntry(
+            AuditActionType actionType,
+            String entityType,
+            UUID entityId,
+            String description,
+            String details
+    ) {
+    }
+
+    private record PendingAudit(Jwt jwt, AuditEntry entry, Instant createdAt) {
+    }
+
     private final AuditLogRepository auditLogRepository;
     private final UserService userService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean async;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMs;
+    private final BlockingQueue<PendingAudit> queue;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+    private final Timer flushTimer;
+    private final Thread writer;
+
+    private volatile boolean running;
+
+    public AuditLogService(
+            AuditLogRepository auditLogRepository,
+            UserService userService,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.audit.async.enabled:true}") boolean async,
+            @Value("${inventory.audit.async.queue-capacity:10000}") int queueCapacity,
+            @Value("${inventory.audit.async.batch-size:200}") int batchSize,
+            @Value("${inventory.audit.async.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${inventory.audit.async.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy,
+            @Value("${inventory.audit.async.block-timeout-ms:100}") long blockTimeoutMs) {
+        this.auditLogRepository = auditLogRepository;
+        this.userService = userService;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.async = async;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.droppedCounter = Counter.builder("inventory.audit.dropped")
+                .description("Audit entries shed because the queue was full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("inventory.audit.failed")
+                .description("Audit entries lost because their batch could not be written")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("inventory.audit.flush")
+                .description("Time to write one batch of audit entries")
+                .register(meterRegistry);
+        Gauge.builder("inventory.audit.queue.depth", queue, BlockingQueue::size)
+                .description("Audit entries waiting to be written")
+                .register(meterRegistry);
+        this.writer = new Thread(this::runWriter, "audit-log-writer");
+        this.writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    void start() {
+        if (async) {
+            running = true;
+            writer.start();
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (writer.isAlive()) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
 
     /**
      * Log an action performed by the user identified by the JWT.
      */
-    @Transactional
     public void log(
-            org.springframework.security.oauth2.jwt.Jwt jwt,
+            Jwt jwt,
             AuditActionType actionType,
             String entityType,
             UUID entityId,
             String description,
             String details
     ) {
-        User user = userService.getOrCreateUserFromJwt(jwt);
-        AuditLog log = AuditLog.builder()
-                .user(user)
-                .actionType(actionType)
-                .entityType(entityType)
-                .entityId(entityId)
-                .description(description)
-                .details(details != null && details.length() > 1000 ? details.substring(0, 1000) : details)
-                .build();
-        auditLogRepository.save(log);
+        logAll(jwt, List.of(new AuditEntry(actionType, entityType, entityId, description, details)));
+    }
+
+    /**
+     * Log several actions by the same user; they are written together with one user lookup.
+     */
+    public void logAll(Jwt jwt, List<AuditEntry> entries) {
+        Instant now = Instant.now();
+        List<PendingAudit> pending = entries.stream()
+                .map(entry -> new PendingAudit(jwt, entry, now))
+                .toList();
+        if (!async || !running) {
+            write(pending);
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.forEach(AuditLogService.this::enqueue);
+                }
+            });
+            return;
+        }
+        pending.forEach(this::enqueue);
     }
 
+    /**
+     * Newest first, {@code limit} (at most 200) per page. Pass the previous page's
+     * {@code nextCursor} to continue; every page is an index range scan, however deep.
+     */
     @Transactional(readOnly = true)
-    public List<AuditLogResponseDTO> getRecentLogs(int limit) {
+    public CursorPageDTO<AuditLogResponseDTO> getRecentLogs(int limit, String cursor) {
         int safeLimit = Math.max(1, Math.min(limit, 200));
-        return auditLogRepository.findAllByOrderByCreatedAtDesc(PageRequest.of(0, safeLimit))
-                .map(AuditLogService::toResponseDTO)
-                .toList();
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        Slice<AuditLog> page = after == null
+                ? auditLogRepository.findAllByOrderByCreatedAtDescIdDesc(PageRequest.of(0, safeLimit))
+                : auditLogRepository.findPageBefore(after.createdAt(), after.id(), PageRequest.of(0, safeLimit));
+        List<AuditLog> rows = page.getContent();
+        String nextCursor = null;
+        if (page.hasNext()) {
+            AuditLog last = rows.get(rows.size() - 1);
+            nextCursor = new HistoryCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPageDTO<>(rows.stream().map(AuditLogService::toResponseDTO).toList(), nextCursor);
+    }
+
+    private void enqueue(PendingAudit audit) {
+        boolean accepted;
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            try {
+                accepted = queue.offer(audit, blockTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+        } else {
+            accepted = queue.offer(audit);
+        }
+        if (!accepted) {
+            droppedCounter.increment();
+            log.warn("Audit queue full, dropped {} on {} {}",
+                    audit.entry().actionType(), audit.entry().entityType(), audit.entry().entityId());
+        }
+    }
+
+    private void runWriter() {
+        List<PendingAudit> batch = new ArrayList<>(batchSize);
+        boolean interrupted = false;
+        while (!interrupted && (running || !queue.isEmpty())) {
+            try {
+                PendingAudit first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingAudit next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                interrupted = true;
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    write(batch);
+                } catch (RuntimeException e) {
+                    failedCounter.increment(batch.size());
+                    log.error("Failed to write {} audit entries", batch.size(), e);
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingAudit> batch) {
+        flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+            Map<String, User> users = new HashMap<>();
+            List<AuditLog> logs = new ArrayList<>(batch.size());
+            for (PendingAudit audit : batch) {
+                User user = users.computeIfAbsent(audit.jwt().getSubject(),
+                        subject -> userService.getOrCreateUserFromJwt(audit.jwt()));
+                logs.add(toAuditLog(user, audit.entry(), audit.createdAt()));
+            }
+            List<AuditLogResponseDTO> written = auditLogRepository.saveAll(logs)
+                    .stream()
+                    .map(AuditLogService::toResponseDTO)
+                    .toList();
+            eventPublisher.publishEvent(new AuditLogsRecordedEvent(written));
+        }));
+    }
+
+    private static AuditLog toAuditLog(User user, AuditEntry entry, Instant createdAt) {
+        String details = entry.details();
+        return AuditLog.builder()
+                .user(user)
+                .actionType(entry.actionType())
+                .entityType(entry.entityType())
+                .entityId(entry.entityId())
+                .description(entry.description())
+                .details(details != null && details.length() > 1000 ? details.substring(0, 1000) : details)
+                .createdAt(createdAt)
+                .build();
     }
 
     private static AuditLogResponseDTO toResponseDTO(AuditLog log) {
@@ -0,0 +1,112 @@
+package com.octavian.server.service;
+
+import com.octavian.server.event.AuditLogsRecordedEvent;
+import com.octavian.server.event.HistoryRetiredEvent;
+import com.octavian.server.event.ProductChangedEvent;
+import com.octavian.server.event.ProductsImportedEvent;
+import com.octavian.server.event.StockMovementsRecordedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A change counter per collection, bumped after every commit that touches it, from which the list
+ * endpoints derive their ETags. Controllers read the version before querying, so a response can
+ * only carry a version older than its data, never newer: a client may refetch once too often but
+ * never keeps a stale copy of a change made on this node. That needs the query to see the commit
+ * behind the version, which a read replica may not yet do; for {@link #isAheadOfReplicas} (the
+ * replicas' {@code max-lag} plus one lag check) after a bump, listings are read from the primary.
+ * Counters are node-local; the ETag includes a per-run epoch so versions from another node or an
+ * earlier run never match, and a {@code max-staleness} time bucket so that writes made on other
+ * nodes are picked up within that window.
+ */
+@Component
+public class CollectionVersions {
+
+    public enum Collection {
+        PRODUCTS("products"),
+        STOCK_MOVEMENTS("stock-movements"),
+        AUDIT_LOGS("audit-logs");
+
+        private final String tag;
+
+        Collection(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final Map<Collection, AtomicLong> versions = new EnumMap<>(Collection.class);
+    /** {@link System#nanoTime()} of each collection's last bump. */
+    private final Map<Collection, AtomicLong> bumpedAt = new EnumMap<>(Collection.class);
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+    private final long maxStalenessMs;
+    /** How long replicas may still miss a bumped change; 0 without replicas. */
+    private final long replicaLagNanos;
+
+    public CollectionVersions(
+            @Value("${inventory.etags.max-staleness:PT1M}") Duration maxStaleness,
+            @Value("${inventory.db.replicas.urls:}") List<String> replicaUrls,
+            @Value("${inventory.db.replicas.max-lag:PT5S}") Duration replicaMaxLag,
+            @Value("${inventory.db.replicas.check-interval-ms:5000}") long replicaCheckIntervalMs) {
+        this.maxStalenessMs = Math.max(1, maxStaleness.toMillis());
+        this.replicaLagNanos = replicaUrls.stream().allMatch(String::isBlank)
+                ? 0
+                : replicaMaxLag.plusMillis(replicaCheckIntervalMs).toNanos();
+        for (Collection collection : Collection.values()) {
+            versions.put(collection, new AtomicLong());
+            bumpedAt.put(collection, new AtomicLong(System.nanoTime() - replicaLagNanos));
+        }
+    }
+
+    /**
+     * Weak, because the same version covers every representation (JSON, CBOR, gzip) and Tomcat
+     * does not compress responses that carry a strong ETag.
+     */
+    public String etag(Collection collection) {
+        long window = System.currentTimeMillis() / maxStalenessMs;
+        return "W/\"" + collection.tag + "-" + epoch + "-" + versions.get(collection).get() + "-" + window + "\"";
+    }
+
+    /** Whether a read replica may not have replayed the commit behind the current version yet. */
+    public boolean isAheadOfReplicas(Collection collection) {
+        return replicaLagNanos > 0 && System.nanoTime() - bumpedAt.get(collection).get() < replicaLagNanos;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        bump(Collection.PRODUCTS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        bump(Collection.PRODUCTS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockMovementsRecorded(StockMovementsRecordedEvent event) {
+        bump(Collection.STOCK_MOVEMENTS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuditLogsRecorded(AuditLogsRecordedEvent event) {
+        bump(Collection.AUDIT_LOGS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHistoryRetired(HistoryRetiredEvent event) {
+        bump(event.table().equals("audit_logs") ? Collection.AUDIT_LOGS : Collection.STOCK_MOVEMENTS);
+    }
+
+    private void bump(Collection collection) {
+        // Stamped first, so that a reader who sees the new version also sees the new stamp
+        bumpedAt.get(collection).set(System.nanoTime());
+        versions.get(collection).incrementAndGet();
+    }
+}
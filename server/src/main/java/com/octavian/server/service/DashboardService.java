@@ -0,0 +1,140 @@
+package com.octavian.server.service;
+
+import com.octavian.server.dto.AuditLogResponseDTO;
+import com.octavian.server.dto.DashboardDTO;
+import com.octavian.server.dto.InventoryStatsDTO;
+import com.octavian.server.dto.ProductResponseDTO;
+import com.octavian.server.dto.StockMovementResponseDTO;
+import com.octavian.server.dto.UserResponseDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Gathers the dashboard's sections concurrently, each on its own virtual thread and, for the
+ * database reads, in its own read-only transaction. Every section gets {@code section-timeout-ms}
+ * from the start of the request; one that fails or runs over is left out and reported as
+ * degraded while the rest of the response is still returned.
+ * <p>
+ * A section's transaction times out at the same deadline, which becomes a JDBC query timeout: a
+ * late query is cancelled on the server and its connection goes back to the pool instead of being
+ * held for a response that was already sent. At most {@code max-concurrent-sections} read
+ * sections run at once on this node; one that cannot start before the deadline is degraded.
+ */
+@Slf4j
+@Service
+public class DashboardService {
+
+    private static final int MAX_LIMIT = 50;
+
+    private final UserService userService;
+    private final InventoryValuation inventoryValuation;
+    private final ProductService productService;
+    private final StockMovementService stockMovementService;
+    private final AuditLogService auditLogService;
+    private final PlatformTransactionManager transactionManager;
+    private final long sectionTimeoutMs;
+    private final Semaphore readSections;
+    private final ExecutorService sections = Executors.newVirtualThreadPerTaskExecutor();
+
+    public DashboardService(
+            UserService userService,
+            InventoryValuation inventoryValuation,
+            ProductService productService,
+            StockMovementService stockMovementService,
+            AuditLogService auditLogService,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.dashboard.section-timeout-ms:2000}") long sectionTimeoutMs,
+            @Value("${inventory.dashboard.max-concurrent-sections:8}") int maxConcurrentSections) {
+        this.userService = userService;
+        this.inventoryValuation = inventoryValuation;
+        this.productService = productService;
+        this.stockMovementService = stockMovementService;
+        this.auditLogService = auditLogService;
+        this.transactionManager = transactionManager;
+        this.sectionTimeoutMs = sectionTimeoutMs;
+        this.readSections = new Semaphore(Math.max(1, maxConcurrentSections), true);
+    }
+
+    public DashboardDTO getDashboard(Jwt jwt, int limit) {
+        int safeLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sectionTimeoutMs);
+        // Resolving the user may write it, so it runs in its own transaction
+        Future<UserResponseDTO> currentUser = sections.submit(() -> jwt != null ? userService.getOrCreateFromJwt(jwt) : null);
+        // Held in memory, so it needs neither a transaction nor one of the read permits
+        Future<InventoryStatsDTO> stats = sections.submit(inventoryValuation::getStats);
+        Future<List<ProductResponseDTO>> lowStock = submitRead(deadline, () -> productService.getLowStockProducts(safeLimit));
+        Future<List<StockMovementResponseDTO>> movements =
+                submitRead(deadline, () -> stockMovementService.getRecentMovements(safeLimit, null).items());
+        Future<List<AuditLogResponseDTO>> auditLogs =
+                submitRead(deadline, () -> auditLogService.getRecentLogs(safeLimit, null).items());
+
+        List<String> degraded = new ArrayList<>();
+        return new DashboardDTO(
+                await("currentUser", currentUser, deadline, degraded),
+                await("stats", stats, deadline, degraded),
+                await("lowStock", lowStock, deadline, degraded),
+                await("recentMovements", movements, deadline, degraded),
+                await("recentAuditLogs", auditLogs, deadline, degraded),
+                List.copyOf(degraded));
+    }
+
+    @PreDestroy
+    public void stop() {
+        sections.shutdownNow();
+    }
+
+    private <T> Future<T> submitRead(long deadline, Supplier<T> section) {
+        return sections.submit(() -> {
+            if (!readSections.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                throw new RejectedExecutionException("Too many dashboard sections in flight");
+            }
+            try {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    throw new RejectedExecutionException("No time left for the section");
+                }
+                TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+                transaction.setReadOnly(true);
+                // Rounded up to whole seconds, so a late query runs at most a second past the response
+                transaction.setTimeout((int) Math.ceil(remainingMs / 1000.0));
+                return transaction.execute(status -> section.get());
+            } finally {
+                readSections.release();
+            }
+        });
+    }
+
+    private static <T> T await(String name, Future<T> section, long deadline, List<String> degraded) {
+        try {
+            return section.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Dashboard section {} timed out", name);
+        } catch (ExecutionException e) {
+            log.warn("Dashboard section {} failed", name, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Not interrupted: that would close the socket of a pooled connection mid-query; a late
+        // section ends at its transaction timeout and its result is dropped
+        section.cancel(false);
+        degraded.add(name);
+        return null;
+    }
+}
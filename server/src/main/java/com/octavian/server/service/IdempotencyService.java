@@ -0,0 +1,214 @@
+package com.octavian.server.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.octavian.server.exception.DuplicateResourceException;
+import com.octavian.server.model.IdempotencyRecord;
+import com.octavian.server.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored response for repeated requests carrying the same {@code Idempotency-Key}.
+ * Completed responses are looked up in a bounded in-memory cache first and in the
+ * {@code idempotency_keys} table second, so a retry costs no database writes and, on a warm node,
+ * no database reads. Keys are scoped per user and expire after the configured TTL.
+ * <p>
+ * When the action's writes join the caller's transaction, the key is claimed and its response
+ * stored in that same transaction: the key and the effect commit together or not at all, and a
+ * concurrent retry waits on the key's row and then replays. Otherwise (group commit) the claim
+ * commits first and the response after the action; a claim that never got its response keeps
+ * answering 409 until it expires rather than letting a retry run the action again.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Cache<String, StoredResponse> cache;
+
+    public IdempotencyService(
+            IdempotencyRecordRepository repository,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            @Value("${inventory.idempotency.ttl:PT24H}") Duration ttl,
+            @Value("${inventory.idempotency.cache-size:10000}") long cacheSize) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public <T> ResponseEntity<T> execute(
+            Jwt jwt, String key, Object request, Class<T> responseType, boolean joinsTransaction,
+            Supplier<ResponseEntity<T>> action) {
+        return execute(jwt, key, request, objectMapper.constructType(responseType), joinsTransaction, action);
+    }
+
+    public <T> ResponseEntity<T> execute(
+            Jwt jwt, String key, Object request, TypeReference<T> responseType, boolean joinsTransaction,
+            Supplier<ResponseEntity<T>> action) {
+        return execute(jwt, key, request, objectMapper.getTypeFactory().constructType(responseType), joinsTransaction, action);
+    }
+
+    /**
+     * Runs {@code action} once per key. Without a key the action simply runs. A key reused with a
+     * different payload, or while the first request is still running, is rejected with 409.
+     * {@code joinsTransaction} tells whether the action's writes commit in a transaction started
+     * here, or in one of their own.
+     */
+    private <T> ResponseEntity<T> execute(
+            Jwt jwt, String key, Object request, JavaType responseType, boolean joinsTransaction,
+            Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = (jwt != null ? jwt.getSubject() : "anonymous") + ":" + key;
+        String requestHash = hash(request);
+
+        StoredResponse cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return replay(cached, requestHash, responseType);
+        }
+        return joinsTransaction
+                ? executeInOneTransaction(id, requestHash, responseType, action)
+                : executeAroundCommit(id, requestHash, responseType, action);
+    }
+
+    private <T> ResponseEntity<T> executeInOneTransaction(
+            String id, String requestHash, JavaType responseType, Supplier<ResponseEntity<T>> action) {
+        Outcome<T> outcome = transactionTemplate.execute(status -> {
+            if (!claim(id, requestHash)) {
+                return new Outcome<T>(null, existing(id));
+            }
+            ResponseEntity<T> response = action.get();
+            StoredResponse stored = new StoredResponse(requestHash, response.getStatusCode().value(), toJson(response.getBody()));
+            repository.complete(id, stored.status(), stored.body());
+            return new Outcome<>(response, stored);
+        });
+        cache.put(id, outcome.stored());
+        return outcome.response() != null ? outcome.response() : replay(outcome.stored(), requestHash, responseType);
+    }
+
+    private <T> ResponseEntity<T> executeAroundCommit(
+            String id, String requestHash, JavaType responseType, Supplier<ResponseEntity<T>> action) {
+        Boolean claimed = transactionTemplate.execute(status -> claim(id, requestHash));
+        if (!Boolean.TRUE.equals(claimed)) {
+            StoredResponse stored = existing(id);
+            cache.put(id, stored);
+            return replay(stored, requestHash, responseType);
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            // Free the key so the client can retry a request that did not go through.
+            transactionTemplate.executeWithoutResult(status -> repository.release(id));
+            throw e;
+        }
+        try {
+            StoredResponse stored = new StoredResponse(requestHash, response.getStatusCode().value(), toJson(response.getBody()));
+            transactionTemplate.executeWithoutResult(status -> repository.complete(id, stored.status(), stored.body()));
+            cache.put(id, stored);
+        } catch (RuntimeException e) {
+            // The action went through; retries of this key get 409 until it expires
+            log.error("Could not store the response for {} {}", HEADER, id, e);
+        }
+        return response;
+    }
+
+    private boolean claim(String id, String requestHash) {
+        Instant now = Instant.now();
+        return repository.claim(id, requestHash, now, now.plus(ttl)) > 0;
+    }
+
+    /** The response stored under a key that could not be claimed; 409 while there is none. */
+    private StoredResponse existing(String id) {
+        IdempotencyRecord existing = repository.findById(id).orElse(null);
+        if (existing == null || existing.getResponseStatus() == null) {
+            throw new DuplicateResourceException(
+                    "A request with this " + HEADER + " is still being processed");
+        }
+        return new StoredResponse(existing.getRequestHash(), existing.getResponseStatus(), existing.getResponseBody());
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.idempotency.cleanup-interval-ms:600000}")
+    public void deleteExpired() {
+        Integer deleted = transactionTemplate.execute(status -> repository.deleteExpired(Instant.now()));
+        if (deleted != null && deleted > 0) {
+            log.debug("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, String requestHash, JavaType responseType) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new DuplicateResourceException(
+                    HEADER + " was already used for a request with a different payload");
+        }
+        try {
+            T body = stored.body() != null ? objectMapper.readValue(stored.body(), responseType) : null;
+            return ResponseEntity.status(HttpStatusCode.valueOf(stored.status()))
+                    .header(REPLAYED_HEADER, "true")
+                    .body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response cannot be read", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return body != null ? objectMapper.writeValueAsString(body) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store idempotent response", e);
+        }
+    }
+
+    private record StoredResponse(String requestHash, int status, String body) {
+    }
+
+    /** {@code response} is null when an earlier request's stored response is to be replayed. */
+    private record Outcome<T>(ResponseEntity<T> response, StoredResponse stored) {
+    }
+}
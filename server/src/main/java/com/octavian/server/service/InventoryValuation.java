@@ -0,0 +1,242 @@
+package com.octavian.server.service;
+
+import com.octavian.server.dto.CategoryStatsDTO;
+import com.octavian.server.dto.InventoryStatsDTO;
+import com.octavian.server.dto.ProductResponseDTO;
+import com.octavian.server.event.ProductChangedEvent;
+import com.octavian.server.event.ProductsImportedEvent;
+import com.octavian.server.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Running inventory totals (products, units, value, low and out of stock), per category and
+ * overall, kept in memory and adjusted by the difference between a product's previous and new
+ * state on every committed change. Changes for the same product are applied in sequence order, as
+ * in {@link LowStockIndex}. A periodic reconciliation compares the totals with an aggregate over
+ * the products table and reports drift as a warning and on the {@code inventory.valuation.drift}
+ * meters. Writes on other nodes are not seen, so on a multi-node deployment drift is expected.
+ */
+@Slf4j
+@Component
+public class InventoryValuation {
+
+    private static final int LOAD_BATCH_SIZE = 5000;
+    private static final Comparator<CategoryStatsDTO> BY_CATEGORY =
+            Comparator.comparing(CategoryStatsDTO::category, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter driftDetected;
+    /** Absolute difference in total value found by the last reconciliation. */
+    private final AtomicReference<Double> lastValueDrift = new AtomicReference<>(0.0);
+
+    // Guarded by this
+    private final Map<UUID, Contribution> contributions = new HashMap<>();
+    private final Map<String, Totals> categories = new HashMap<>();
+
+    private volatile boolean ready;
+
+    public InventoryValuation(ProductRepository productRepository, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.driftDetected = meterRegistry.counter("inventory.valuation.drift.detected");
+        meterRegistry.gauge("inventory.valuation.drift.value", lastValueDrift, AtomicReference::get);
+    }
+
+    /** Current totals; from the database until the startup load has finished. */
+    public InventoryStatsDTO getStats() {
+        return ready ? snapshot() : databaseStats();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        long loaded = loadAfter(new UUID(0, 0));
+        ready = true;
+        log.info("Inventory valuation loaded {} products in {} ms", loaded, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        Contribution current = contributions.get(event.product().id());
+        if (current == null || current.sequence() < event.sequence()) {
+            apply(event.product(), event.sequence());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        loadAfter(event.idsAfter());
+    }
+
+    /**
+     * Compares the running totals with the database. A mismatch can be a change that committed
+     * between the two reads, so it is only reported if it is still there when checked again.
+     */
+    @Scheduled(fixedDelayString = "${inventory.stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (!ready) {
+            return;
+        }
+        List<String> differences = differences(snapshot(), databaseStats());
+        if (!differences.isEmpty()) {
+            InventoryStatsDTO memory = snapshot();
+            InventoryStatsDTO database = databaseStats();
+            differences = differences(memory, database);
+            lastValueDrift.set(memory.value().subtract(database.value()).abs().doubleValue());
+        } else {
+            lastValueDrift.set(0.0);
+        }
+        if (!differences.isEmpty()) {
+            driftDetected.increment();
+            log.warn("Inventory valuation drifted from the database: {}", String.join("; ", differences));
+        }
+    }
+
+    private long loadAfter(UUID after) {
+        long loaded = 0;
+        List<ProductResponseDTO> batch;
+        do {
+            batch = productRepository.findAllAfterId(after, Limit.of(LOAD_BATCH_SIZE));
+            synchronized (this) {
+                // Products already changed since startup are up to date; a stale read must not replace them
+                batch.forEach(product -> {
+                    if (!contributions.containsKey(product.id())) {
+                        apply(product, 0);
+                    }
+                });
+            }
+            loaded += batch.size();
+            if (!batch.isEmpty()) {
+                after = batch.get(batch.size() - 1).id();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        return loaded;
+    }
+
+    private void apply(ProductResponseDTO product, long sequence) {
+        Contribution next = new Contribution(sequence, product.category(), product.price(),
+                product.stockQuantity(), product.minStockLevel());
+        Contribution previous = contributions.put(product.id(), next);
+        if (previous != null) {
+            Totals totals = categories.get(previous.category());
+            totals.add(previous, -1);
+            if (totals.products == 0) {
+                categories.remove(previous.category());
+            }
+        }
+        categories.computeIfAbsent(next.category(), category -> new Totals()).add(next, 1);
+    }
+
+    private synchronized InventoryStatsDTO snapshot() {
+        List<CategoryStatsDTO> rows = new ArrayList<>(categories.size());
+        categories.forEach((category, totals) -> rows.add(totals.toDTO(category)));
+        return summarize(rows);
+    }
+
+    private InventoryStatsDTO databaseStats() {
+        List<CategoryStatsDTO> rows = jdbcTemplate.query("""
+                SELECT category, count(*), coalesce(sum(stock_quantity), 0), coalesce(sum(price * stock_quantity), 0),
+                       count(*) FILTER (WHERE stock_quantity > 0 AND stock_quantity <= min_stock_level),
+                       count(*) FILTER (WHERE stock_quantity <= 0)
+                FROM products
+                GROUP BY category
+                """,
+                (rs, rowNum) -> new CategoryStatsDTO(rs.getString(1), rs.getLong(2), rs.getLong(3),
+                        rs.getBigDecimal(4), rs.getLong(5), rs.getLong(6)));
+        return summarize(rows);
+    }
+
+    private static InventoryStatsDTO summarize(List<CategoryStatsDTO> rows) {
+        rows.sort(BY_CATEGORY);
+        long products = 0;
+        long units = 0;
+        BigDecimal value = BigDecimal.ZERO;
+        long lowStock = 0;
+        long outOfStock = 0;
+        for (CategoryStatsDTO row : rows) {
+            products += row.products();
+            units += row.units();
+            value = value.add(row.value());
+            lowStock += row.lowStockProducts();
+            outOfStock += row.outOfStockProducts();
+        }
+        return new InventoryStatsDTO(products, units, value, lowStock, outOfStock, List.copyOf(rows));
+    }
+
+    private static List<String> differences(InventoryStatsDTO memory, InventoryStatsDTO database) {
+        Map<String, CategoryStatsDTO> expected = new HashMap<>();
+        database.categories().forEach(row -> expected.put(row.category(), row));
+        List<String> differences = new ArrayList<>();
+        for (CategoryStatsDTO actual : memory.categories()) {
+            CategoryStatsDTO row = expected.remove(actual.category());
+            if (row == null || !sameTotals(actual, row)) {
+                differences.add("category " + actual.category() + ": memory " + actual + ", database " + row);
+            }
+        }
+        expected.values().forEach(row -> differences.add("category " + row.category() + ": missing in memory, database " + row));
+        return differences;
+    }
+
+    private static boolean sameTotals(CategoryStatsDTO a, CategoryStatsDTO b) {
+        return a.products() == b.products()
+                && a.units() == b.units()
+                && a.value().compareTo(b.value()) == 0
+                && a.lowStockProducts() == b.lowStockProducts()
+                && a.outOfStockProducts() == b.outOfStockProducts();
+    }
+
+    /** What one product adds to its category's totals. */
+    private record Contribution(long sequence, String category, BigDecimal price, int stock, int minStock) {
+
+        BigDecimal value() {
+            return price.multiply(BigDecimal.valueOf(stock));
+        }
+
+        boolean lowStock() {
+            return stock > 0 && stock <= minStock;
+        }
+
+        boolean outOfStock() {
+            return stock <= 0;
+        }
+    }
+
+    private static final class Totals {
+        private long products;
+        private long units;
+        private BigDecimal value = BigDecimal.ZERO;
+        private long lowStock;
+        private long outOfStock;
+
+        void add(Contribution contribution, int sign) {
+            products += sign;
+            units += (long) sign * contribution.stock();
+            value = sign > 0 ? value.add(contribution.value()) : value.subtract(contribution.value());
+            lowStock += contribution.lowStock() ? sign : 0;
+            outOfStock += contribution.outOfStock() ? sign : 0;
+        }
+
+        CategoryStatsDTO toDTO(String category) {
+            return new CategoryStatsDTO(category, products, units, value, lowStock, outOfStock);
+        }
+    }
+}
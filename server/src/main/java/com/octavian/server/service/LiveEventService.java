@@ -0,0 +1,244 @@
+package com.octavian.server.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.octavian.server.event.AuditLogsRecordedEvent;
+import com.octavian.server.event.StockMovementsRecordedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes committed stock movements and audit entries to Server-Sent Events subscribers. Each event
+ * is serialized once and offered to every subscriber's bounded buffer; a virtual thread per
+ * subscriber drains its buffer into the connection and sends a comment as heartbeat when idle, so
+ * open dashboards cost no database queries. A subscriber whose buffer is full is disconnected
+ * rather than slowing down the writers; it reconnects with {@code Last-Event-ID} and is replayed
+ * whatever it missed from the last {@code replay-capacity} events. When those no longer cover the
+ * gap (or the id comes from another node or an earlier run) it gets a {@value #RESET} event and
+ * should reload the listings.
+ */
+@Slf4j
+@Service
+public class LiveEventService {
+
+    public static final String STOCK_MOVEMENTS = "stock-movements";
+    public static final String AUDIT_LOGS = "audit-logs";
+    public static final Set<String> TOPICS = Set.of(STOCK_MOVEMENTS, AUDIT_LOGS);
+    static final String RESET = "reset";
+
+    private static final long RECONNECT_MS = 3000;
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final long heartbeatMs;
+    private final long emitterTimeoutMs;
+    private final Counter evictedCounter;
+    /** Distinguishes ids of this run from ids handed out by other nodes or before a restart. */
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+
+    // Guarded by this
+    private final LiveEvent[] recent;
+    private final Set<Subscriber> subscribers = new LinkedHashSet<>();
+    private long lastSequence;
+
+    public LiveEventService(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.live.subscriber-buffer:256}") int bufferSize,
+            @Value("${inventory.live.replay-capacity:1000}") int replayCapacity,
+            @Value("${inventory.live.heartbeat-ms:15000}") long heartbeatMs,
+            @Value("${inventory.live.emitter-timeout-ms:1800000}") long emitterTimeoutMs) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.recent = new LiveEvent[Math.max(1, replayCapacity)];
+        this.heartbeatMs = Math.max(1, heartbeatMs);
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.evictedCounter = Counter.builder("inventory.live.evicted")
+                .description("Live event subscribers disconnected because they fell behind")
+                .register(meterRegistry);
+        Gauge.builder("inventory.live.subscribers", this, LiveEventService::subscriberCount)
+                .description("Open live event connections")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream of the given topics. Events after {@code lastEventId} that are still held are
+     * sent first.
+     */
+    public SseEmitter open(Set<String> topics, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = subscribe(topics, lastEventId);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscriber.sender = Thread.ofVirtual()
+                .name("live-events-" + subscriber.hashCode())
+                .start(() -> deliver(subscriber, emitter));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockMovementsRecorded(StockMovementsRecordedEvent event) {
+        event.movements().forEach(movement -> publish(STOCK_MOVEMENTS, "stock-movement", movement));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuditLogsRecorded(AuditLogsRecordedEvent event) {
+        event.logs().forEach(log -> publish(AUDIT_LOGS, "audit-log", log));
+    }
+
+    /** Open streams would otherwise hold up the web server's graceful shutdown until they time out. */
+    @EventListener(ContextClosedEvent.class)
+    public synchronized void stop() {
+        new ArrayList<>(subscribers).forEach(Subscriber::close);
+    }
+
+    void publish(String topic, String name, Object payload) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialize live {} event", name, e);
+            return;
+        }
+        synchronized (this) {
+            LiveEvent event = new LiveEvent(++lastSequence, epoch + "-" + lastSequence, topic, name, data);
+            recent[(int) (event.sequence() % recent.length)] = event;
+            for (Subscriber subscriber : new ArrayList<>(subscribers)) {
+                if (subscriber.topics.contains(topic) && !subscriber.buffer.offer(event)) {
+                    evictedCounter.increment();
+                    log.info("Disconnected a live event subscriber that fell {} events behind", bufferSize);
+                    subscriber.close();
+                }
+            }
+        }
+    }
+
+    /** Registers the subscriber and computes its replay in one step, so no event is missed or sent twice. */
+    synchronized Subscriber subscribe(Set<String> topics, String lastEventId) {
+        Subscriber subscriber = new Subscriber(topics, new ArrayBlockingQueue<>(bufferSize));
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            long after = sequenceOf(lastEventId);
+            long oldest = Math.max(1, lastSequence - recent.length + 1);
+            if (after < 0 || after > lastSequence || after < oldest - 1) {
+                subscriber.reset = true;
+            } else {
+                for (long sequence = after + 1; sequence <= lastSequence; sequence++) {
+                    LiveEvent event = recent[(int) (sequence % recent.length)];
+                    if (topics.contains(event.topic())) {
+                        subscriber.replay.add(event);
+                    }
+                }
+            }
+        }
+        subscribers.add(subscriber);
+        return subscriber;
+    }
+
+    private synchronized int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private synchronized void remove(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    private long sequenceOf(String lastEventId) {
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void deliver(Subscriber subscriber, SseEmitter emitter) {
+        try {
+            emitter.send(SseEmitter.event().comment("connected").reconnectTime(RECONNECT_MS));
+            if (subscriber.reset) {
+                emitter.send(SseEmitter.event().name(RESET).data("{}", MediaType.APPLICATION_JSON));
+            }
+            for (LiveEvent event : subscriber.replay) {
+                send(emitter, event);
+            }
+            subscriber.replay.clear();
+            List<LiveEvent> batch = new ArrayList<>();
+            while (!subscriber.closed) {
+                LiveEvent first = subscriber.buffer.poll(heartbeatMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                    continue;
+                }
+                batch.add(first);
+                subscriber.buffer.drainTo(batch);
+                for (LiveEvent event : batch) {
+                    send(emitter, event);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Closed while waiting for events
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Live event subscriber went away: {}", e.getMessage());
+        } finally {
+            subscriber.close();
+            emitter.complete();
+        }
+    }
+
+    private static void send(SseEmitter emitter, LiveEvent event) throws IOException {
+        emitter.send(SseEmitter.event().id(event.id()).name(event.name()).data(event.data(), MediaType.APPLICATION_JSON));
+    }
+
+    /** {@code data} is the payload serialized as JSON. */
+    record LiveEvent(long sequence, String id, String topic, String name, String data) {
+    }
+
+    final class Subscriber {
+        final Set<String> topics;
+        final BlockingQueue<LiveEvent> buffer;
+        final List<LiveEvent> replay = new ArrayList<>();
+        boolean reset;
+        volatile boolean closed;
+        volatile Thread sender;
+
+        private Subscriber(Set<String> topics, BlockingQueue<LiveEvent> buffer) {
+            this.topics = topics;
+            this.buffer = buffer;
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            remove(this);
+            Thread thread = sender;
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+        }
+    }
+}
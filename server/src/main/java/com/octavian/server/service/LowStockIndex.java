@@ -0,0 +1,199 @@
+package com.octavian.server.service;
+
+import com.octavian.server.dto.ProductResponseDTO;
+import com.octavian.server.event.ProductChangedEvent;
+import com.octavian.server.event.ProductsImportedEvent;
+import com.octavian.server.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Products at or below their minimum stock level, kept in memory ordered by how far below it they
+ * are, so the top k can be read without touching the database. Rebuilt from the partial
+ * {@code idx_products_low_stock} index on startup and kept current from committed product changes.
+ * <p>
+ * After-commit listeners for the same product may run out of order, so each product remembers the
+ * sequence of the last change applied and older changes are ignored. Rows read from the database
+ * never replace state that came from a change event: every commit publishes its own event, so the
+ * event for anything newer than the read is still on its way.
+ * <p>
+ * Writes on other nodes publish no events here, so a periodic reconciliation reads the low-stock
+ * rows again and corrects every product whose state was applied before that read began.
+ */
+@Slf4j
+@Component
+public class LowStockIndex {
+
+    private static final UUID FIRST_ID = new UUID(0, 0);
+    private static final Comparator<ProductResponseDTO> FURTHEST_BELOW_FIRST = Comparator
+            .comparingInt(LowStockIndex::shortfall).reversed()
+            .thenComparing(ProductResponseDTO::id);
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    /**
+     * Last known state of every product that is or was low since startup; {@code product} is null
+     * once it is no longer low. Bounded by the catalog size.
+     */
+    private final Map<UUID, State> states = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<ProductResponseDTO> lowStock = new ConcurrentSkipListSet<>(FURTHEST_BELOW_FIRST);
+    /** While a load runs, products that are not low are remembered too, so the load cannot resurrect them. */
+    private final AtomicInteger loadsInProgress = new AtomicInteger();
+    /** Counts state changes; a state applied after a read began may be newer than what it returned. */
+    private final AtomicLong applied = new AtomicLong();
+
+    private volatile boolean ready;
+
+    public LowStockIndex(ProductRepository productRepository, JdbcTemplate jdbcTemplate) {
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** False until the startup rebuild has finished. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** The {@code limit} products furthest below their minimum stock level, furthest first. */
+    public List<ProductResponseDTO> top(int limit) {
+        List<ProductResponseDTO> top = new ArrayList<>(Math.min(limit, 64));
+        Iterator<ProductResponseDTO> iterator = lowStock.iterator();
+        while (top.size() < limit && iterator.hasNext()) {
+            top.add(iterator.next());
+        }
+        return top;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_products_low_stock ON products (id) "
+                    + "WHERE stock_quantity <= min_stock_level");
+        } catch (RuntimeException e) {
+            log.warn("Could not create the low-stock index ({}); the rebuild scans the products table", e.getMessage());
+        }
+        int loaded = loadAfter(FIRST_ID);
+        ready = true;
+        log.info("Low-stock index rebuilt with {} products in {} ms", loaded, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Brings the index in line with the database, including changes made on other nodes. */
+    @Scheduled(fixedDelayString = "${inventory.low-stock.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        if (!ready) {
+            return;
+        }
+        AtomicInteger corrected = new AtomicInteger();
+        loadsInProgress.incrementAndGet();
+        try {
+            long readAfter = applied.get();
+            List<ProductResponseDTO> products = productRepository.findLowStockAfterId(FIRST_ID);
+            for (ProductResponseDTO product : products) {
+                states.compute(product.id(), (id, current) -> {
+                    if (current != null && (current.applied() > readAfter || product.equals(current.product()))) {
+                        return current;
+                    }
+                    corrected.incrementAndGet();
+                    return replace(current, product, current != null ? current.sequence() : 0);
+                });
+            }
+            Set<UUID> low = products.stream().map(ProductResponseDTO::id).collect(Collectors.toSet());
+            for (UUID id : states.keySet()) {
+                if (!low.contains(id)) {
+                    states.computeIfPresent(id, (key, current) -> {
+                        if (current.product() == null || current.applied() > readAfter) {
+                            return current;
+                        }
+                        corrected.incrementAndGet();
+                        lowStock.remove(current.product());
+                        return new State(current.sequence(), applied.incrementAndGet(), null);
+                    });
+                }
+            }
+        } finally {
+            loadsInProgress.decrementAndGet();
+        }
+        if (corrected.get() > 0) {
+            log.info("Low-stock index reconciled; {} products corrected from the database", corrected.get());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductResponseDTO product = event.product();
+        states.compute(product.id(), (id, current) -> {
+            if (current != null && current.sequence() > event.sequence()) {
+                return current;
+            }
+            if (current == null && !isLow(product) && loadsInProgress.get() == 0) {
+                return null;
+            }
+            return replace(current, product, event.sequence());
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        loadAfter(event.idsAfter());
+    }
+
+    private int loadAfter(UUID after) {
+        loadsInProgress.incrementAndGet();
+        try {
+            List<ProductResponseDTO> products = productRepository.findLowStockAfterId(after);
+            load(products);
+            return products.size();
+        } finally {
+            loadsInProgress.decrementAndGet();
+        }
+    }
+
+    /** Adds products read from the database unless a change event has already been applied for them. */
+    void load(Collection<ProductResponseDTO> products) {
+        for (ProductResponseDTO product : products) {
+            states.computeIfAbsent(product.id(), id -> replace(null, product, 0));
+        }
+    }
+
+    private State replace(State current, ProductResponseDTO product, long sequence) {
+        if (current != null && current.product() != null) {
+            lowStock.remove(current.product());
+        }
+        boolean low = isLow(product);
+        if (low) {
+            lowStock.add(product);
+        }
+        return new State(sequence, applied.incrementAndGet(), low ? product : null);
+    }
+
+    static boolean isLow(ProductResponseDTO product) {
+        return product.stockQuantity() <= product.minStockLevel();
+    }
+
+    private static int shortfall(ProductResponseDTO product) {
+        return product.minStockLevel() - product.stockQuantity();
+    }
+
+    private record State(long sequence, long applied, ProductResponseDTO product) {
+    }
+}
@@ -0,0 +1,219 @@
+package com.octavian.server.service;
+
+import com.octavian.server.event.HistoryRetiredEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps {@code stock_movements} and {@code audit_logs} as monthly range partitions on
+ * {@code created_at}. Hibernate still creates the tables as plain heap tables on an empty
+ * database; they are converted once (data, indexes and constraints carried over), after which a
+ * daily job creates the upcoming months ahead of time and retires months past the retention
+ * window by detaching or dropping whole partitions. Rows outside the prepared range land in a
+ * default partition and are moved out when their month is created.
+ * <p>
+ * The conversion is a migration step: it runs once all beans exist, before the web server starts
+ * and before the scheduler or any startup listener touches the tables, so no request of this node
+ * ever waits on its ACCESS EXCLUSIVE lock. Other nodes still serving from the same database do
+ * wait until the rows are copied, so convert a large table with one node up.
+ */
+@Slf4j
+@Service
+public class PartitionMaintenanceService implements SmartInitializingSingleton {
+
+    public enum RetentionMode { DETACH, DROP }
+
+    private static final Pattern PARTITION_SUFFIX = Pattern.compile("_p(\\d{4})_(\\d{2})$");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int premakeMonths;
+    private final RetentionMode retentionMode;
+    /** Partitioned table -> months of history to keep; 0 keeps everything. */
+    private final Map<String, Integer> retentionMonths;
+
+    public PartitionMaintenanceService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${inventory.partitioning.enabled:true}") boolean enabled,
+            @Value("${inventory.partitioning.premake-months:3}") int premakeMonths,
+            @Value("${inventory.partitioning.retention-mode:DETACH}") RetentionMode retentionMode,
+            @Value("${inventory.partitioning.stock-movements.retention-months:0}") int stockMovementRetention,
+            @Value("${inventory.partitioning.audit-logs.retention-months:0}") int auditLogRetention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.premakeMonths = Math.max(premakeMonths, 1);
+        this.retentionMode = retentionMode;
+        this.retentionMonths = Map.of(
+                "stock_movements", Math.max(stockMovementRetention, 0),
+                "audit_logs", Math.max(auditLogRetention, 0));
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        for (String table : retentionMonths.keySet()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> convertIfNeeded(table));
+            } catch (RuntimeException e) {
+                log.error("Could not convert {} to a partitioned table; it stays as is", table, e);
+            }
+        }
+        maintain();
+    }
+
+    @Scheduled(cron = "${inventory.partitioning.maintenance-cron:0 15 0 * * *}", zone = "UTC")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        retentionMonths.forEach((table, keepMonths) -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    lockMaintenance();
+                    if (!isPartitioned(table)) {
+                        return;
+                    }
+                    for (int i = 0; i <= premakeMonths; i++) {
+                        ensurePartition(table, current.plusMonths(i));
+                    }
+                    if (keepMonths > 0) {
+                        retireBefore(table, current.minusMonths(keepMonths));
+                    }
+                });
+            } catch (RuntimeException e) {
+                log.error("Partition maintenance failed for {}", table, e);
+            }
+        });
+    }
+
+    private void convertIfNeeded(String table) {
+        lockMaintenance();
+        String kind = jdbcTemplate.queryForObject(
+                "SELECT coalesce((SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)), '')", String.class, table);
+        if (!"r".equals(kind)) {
+            return;
+        }
+        jdbcTemplate.execute("LOCK TABLE " + table + " IN ACCESS EXCLUSIVE MODE");
+
+        // Definitions are captured before the rename so they still name the original table.
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT pg_get_indexdef(indexrelid) FROM pg_index WHERE indrelid = ?::regclass AND NOT indisprimary",
+                String.class, table);
+        List<String> constraints = jdbcTemplate.query(
+                "SELECT conname, pg_get_constraintdef(oid) FROM pg_constraint WHERE conrelid = ?::regclass AND contype IN ('c', 'f')",
+                (rs, rowNum) -> "ADD CONSTRAINT " + rs.getString(1) + " " + rs.getString(2),
+                table);
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT min(created_at) FROM " + table, Timestamp.class);
+
+        String legacy = table + "_legacy";
+        jdbcTemplate.execute("ALTER TABLE " + table + " RENAME TO " + legacy);
+        jdbcTemplate.execute("CREATE TABLE " + table + " (LIKE " + legacy + " INCLUDING DEFAULTS) PARTITION BY RANGE (created_at)");
+        jdbcTemplate.execute("CREATE TABLE " + table + "_default PARTITION OF " + table + " DEFAULT");
+        YearMonth last = YearMonth.now(ZoneOffset.UTC).plusMonths(premakeMonths);
+        YearMonth month = oldest != null ? YearMonth.from(oldest.toInstant().atZone(ZoneOffset.UTC)) : last;
+        for (; !month.isAfter(last); month = month.plusMonths(1)) {
+            ensurePartition(table, month);
+        }
+        int rows = jdbcTemplate.update("INSERT INTO " + table + " SELECT * FROM " + legacy);
+        jdbcTemplate.execute("DROP TABLE " + legacy);
+
+        jdbcTemplate.execute("ALTER TABLE " + table + " ADD CONSTRAINT " + table + "_pkey PRIMARY KEY (id, created_at)");
+        indexes.forEach(jdbcTemplate::execute);
+        constraints.forEach(constraint -> jdbcTemplate.execute("ALTER TABLE " + table + " " + constraint));
+        log.info("Converted {} to monthly partitions ({} rows moved)", table, rows);
+    }
+
+    private void ensurePartition(String table, YearMonth month) {
+        String partition = partitionName(table, month);
+        if (exists(partition)) {
+            return;
+        }
+        String bounds = "FOR VALUES FROM ('" + startOf(month) + "') TO ('" + startOf(month.plusMonths(1)) + "')";
+        String defaultPartition = table + "_default";
+        boolean strayRows = exists(defaultPartition) && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + defaultPartition + " WHERE created_at >= ? AND created_at < ?)",
+                Boolean.class, Timestamp.from(startOf(month)), Timestamp.from(startOf(month.plusMonths(1)))));
+        if (!strayRows) {
+            jdbcTemplate.execute("CREATE TABLE " + partition + " PARTITION OF " + table + " " + bounds);
+        } else {
+            // A partition cannot be created over rows already sitting in the default partition:
+            // build it standalone, move the rows across, then attach it.
+            jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + table + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            jdbcTemplate.update("WITH moved AS (DELETE FROM " + defaultPartition
+                            + " WHERE created_at >= ? AND created_at < ? RETURNING *) INSERT INTO " + partition + " SELECT * FROM moved",
+                    Timestamp.from(startOf(month)), Timestamp.from(startOf(month.plusMonths(1))));
+            jdbcTemplate.execute("ALTER TABLE " + table + " ATTACH PARTITION " + partition + " " + bounds);
+        }
+        log.info("Created partition {}", partition);
+    }
+
+    private void retireBefore(String table, YearMonth cutoff) {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = ?::regclass",
+                String.class, table);
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_SUFFIX.matcher(partition);
+            if (!matcher.find()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (!month.isBefore(cutoff)) {
+                continue;
+            }
+            if (retentionMode == RetentionMode.DROP) {
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                log.info("Dropped partition {}", partition);
+            } else {
+                jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+                log.info("Detached partition {}; it remains as a standalone table for archiving", partition);
+            }
+            eventPublisher.publishEvent(new HistoryRetiredEvent(table, startOf(cutoff)));
+        }
+    }
+
+    /** Serializes conversion and maintenance across nodes for the rest of the transaction. */
+    private void lockMaintenance() {
+        jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(hashtext('inventory.partition-maintenance'))", Object.class);
+    }
+
+    private boolean isPartitioned(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_class WHERE oid = to_regclass(?) AND relkind = 'p')", Boolean.class, table));
+    }
+
+    private boolean exists(String relation) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, relation));
+    }
+
+    static String partitionName(String table, YearMonth month) {
+        return "%s_p%04d_%02d".formatted(table, month.getYear(), month.getMonthValue());
+    }
+
+    private static Instant startOf(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+}
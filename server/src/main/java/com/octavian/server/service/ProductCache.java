@@ -0,0 +1,110 @@
+package com.octavian.server.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.octavian.server.dto.ProductFilterDTO;
+import com.octavian.server.dto.ProductResponseDTO;
+import com.octavian.server.event.ProductChangedEvent;
+import com.octavian.server.repository.ProductRepository;
+import com.octavian.server.repository.ProductSort;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Node-local cache of products by id. When a change to a product commits, the product as written
+ * replaces the entry, so the next read never has to go back to the database, where a read replica
+ * could still hand out the old row. Changes are applied in sequence order, and because Caffeine
+ * computes each key atomically, a replacement waits for an in-flight load and then overwrites it.
+ * Writes on other nodes are only picked up when the entry expires, so {@code expire-after-write}
+ * bounds cross-node staleness.
+ * Hit, miss and eviction counts are published as the {@code cache.*} meters with {@code cache=products}.
+ */
+@Slf4j
+@Component
+public class ProductCache {
+
+    private static final int PRELOAD_BATCH_SIZE = 1000;
+    private static final ProductFilterDTO NO_FILTER = new ProductFilterDTO(null, null, null, null);
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final boolean preload;
+    private final long maxSize;
+    private final Cache<UUID, Cached> cache;
+
+    public ProductCache(
+            ProductRepository productRepository,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.products.cache.enabled:true}") boolean enabled,
+            @Value("${inventory.products.cache.preload:true}") boolean preload,
+            @Value("${inventory.products.cache.max-size:100000}") long maxSize,
+            @Value("${inventory.products.cache.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.preload = preload;
+        this.maxSize = maxSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+    }
+
+    /** Returns the cached product, or loads it with {@code loader}; exceptions from the loader propagate. */
+    public ProductResponseDTO get(UUID id, Function<UUID, ProductResponseDTO> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        return cache.get(id, key -> new Cached(0, loader.apply(key))).product();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        cache.asMap().compute(event.product().id(), (id, current) ->
+                current != null && current.sequence() > event.sequence() ? current : new Cached(event.sequence(), event.product()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        if (!enabled || !preload) {
+            return;
+        }
+        long loaded = 0;
+        String lastSku = null;
+        UUID lastId = null;
+        while (loaded < maxSize) {
+            List<ProductResponseDTO> batch = productRepository.findPage(
+                    NO_FILTER, ProductSort.SKU, Sort.Direction.ASC, lastSku, lastId, PRELOAD_BATCH_SIZE);
+            if (batch.isEmpty()) {
+                break;
+            }
+            // A product changed since the read is already in the cache as written
+            batch.forEach(product -> cache.asMap().putIfAbsent(product.id(), new Cached(0, product)));
+            loaded += batch.size();
+            ProductResponseDTO last = batch.get(batch.size() - 1);
+            lastSku = last.sku();
+            lastId = last.id();
+        }
+        log.info("Preloaded {} products into the product cache", cache.estimatedSize());
+    }
+
+    /** Loaded entries have sequence 0, so any change event replaces them. */
+    private record Cached(long sequence, ProductResponseDTO product) {
+    }
+}
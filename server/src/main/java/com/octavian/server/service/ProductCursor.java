@@ -0,0 +1,47 @@
+package com.octavian.server.service;
+
+import com.octavian.server.repository.ProductSort;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a product listing: the sort key and id of the last row returned, plus the sort it
+ * was issued for so it cannot be replayed against a different ordering.
+ */
+public record ProductCursor(ProductSort sort, Sort.Direction direction, Comparable<?> value, UUID id) {
+
+    public String encode() {
+        String raw = sort.name() + "|" + direction.name() + "|" + id + "|" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns null for a blank token (first page). Malformed tokens, or tokens issued for another
+     * sort, are rejected with {@link IllegalArgumentException}.
+     */
+    public static ProductCursor decode(String token, ProductSort sort, Sort.Direction direction) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8).split("\\|", 4);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (!sort.name().equals(parts[0]) || !direction.name().equals(parts[1])) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort");
+        }
+        try {
+            return new ProductCursor(sort, direction, sort.parseValue(parts[3]), UUID.fromString(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.octavian.server.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.octavian.server.dto.ProductCreateDTO;
+import com.octavian.server.dto.ProductImportErrorDTO;
+import com.octavian.server.dto.ProductImportResultDTO;
+import com.octavian.server.event.ProductsImportedEvent;
+import com.octavian.server.model.UuidV7Generator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bulk product import. The request body is parsed one row at a time and valid rows are streamed
+ * into a temporary staging table with the PostgreSQL COPY protocol; duplicate SKUs are then found
+ * and the remaining rows inserted with set-based statements. Only the first
+ * {@value #MAX_REPORTED_ERRORS} row errors are kept, so memory stays flat for any file size.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final int DEFAULT_MIN_STOCK_LEVEL = 5;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final List<String> CSV_COLUMNS =
+            List.of("sku", "name", "category", "price", "stockquantity", "minstocklevel");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public ProductImportResultDTO importProducts(InputStream body, Format format) {
+        UUID idsAfter = UuidV7Generator.next();
+        jdbcTemplate.execute("""
+                CREATE TEMP TABLE product_import_staging (
+                    row_no bigint NOT NULL,
+                    id uuid NOT NULL,
+                    sku text NOT NULL,
+                    name text NOT NULL,
+                    category text,
+                    price numeric NOT NULL,
+                    stock_quantity integer NOT NULL,
+                    min_stock_level integer NOT NULL,
+                    error text
+                ) ON COMMIT DROP
+                """);
+
+        List<ProductImportErrorDTO> errors = new ArrayList<>();
+        long[] counts = new long[2]; // total rows, rows rejected while parsing
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            PGConnection pg = con.unwrap(PGConnection.class);
+            String copySql = "COPY product_import_staging "
+                    + "(row_no, id, sku, name, category, price, stock_quantity, min_stock_level) "
+                    + "FROM STDIN WITH (FORMAT csv)";
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                    new PGCopyOutputStream(pg, copySql, COPY_BUFFER_SIZE), StandardCharsets.UTF_8))) {
+                RowReader rows = format == Format.CSV ? new CsvRowReader(body) : new NdjsonRowReader(body, objectMapper);
+                ParsedRow row;
+                while ((row = rows.next()) != null) {
+                    counts[0]++;
+                    String error = row.error() != null ? row.error() : validate(row.product());
+                    if (error != null) {
+                        counts[1]++;
+                        addError(errors, new ProductImportErrorDTO(row.rowNo(), row.sku(), error));
+                        continue;
+                    }
+                    writeStagingRow(out, row.rowNo(), row.product());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+
+        jdbcTemplate.execute("CREATE INDEX ON product_import_staging (sku, row_no)");
+        jdbcTemplate.execute("ANALYZE product_import_staging");
+        jdbcTemplate.update("""
+                UPDATE product_import_staging s
+                SET error = 'Duplicate SKU in file'
+                WHERE EXISTS (
+                    SELECT 1 FROM product_import_staging f
+                    WHERE f.sku = s.sku AND f.row_no < s.row_no
+                )
+                """);
+        jdbcTemplate.update("""
+                UPDATE product_import_staging s
+                SET error = 'Product with SKU already exists'
+                FROM products p
+                WHERE p.sku = s.sku AND s.error IS NULL
+                """);
+        // A SKU committed by someone else since the check above is skipped by ON CONFLICT; its row
+        // gets the same error as one found by the check, so every failed row is reported.
+        long imported = jdbcTemplate.queryForObject("""
+                WITH inserted AS (
+                    INSERT INTO products (id, sku, name, category, price, stock_quantity, min_stock_level, created_at)
+                    SELECT s.id, s.sku, s.name, s.category, s.price, s.stock_quantity, s.min_stock_level, now()
+                    FROM product_import_staging s
+                    WHERE s.error IS NULL
+                    ORDER BY s.row_no
+                    ON CONFLICT (sku) DO NOTHING
+                    RETURNING sku
+                ), skipped AS (
+                    UPDATE product_import_staging s
+                    SET error = 'Product with SKU already exists'
+                    WHERE s.error IS NULL AND NOT EXISTS (SELECT 1 FROM inserted i WHERE i.sku = s.sku)
+                )
+                SELECT count(*) FROM inserted
+                """, Long.class);
+        if (imported > 0) {
+            eventPublisher.publishEvent(new ProductsImportedEvent(idsAfter, imported));
+        }
+
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.addAll(jdbcTemplate.query("""
+                            SELECT row_no, sku, error FROM product_import_staging
+                            WHERE error IS NOT NULL
+                            ORDER BY row_no
+                            LIMIT ?
+                            """,
+                    (rs, i) -> new ProductImportErrorDTO(rs.getLong("row_no"), rs.getString("sku"), rs.getString("error")),
+                    MAX_REPORTED_ERRORS - errors.size()));
+            errors.sort((a, b) -> Long.compare(a.row(), b.row()));
+        }
+
+        long failed = counts[0] - imported;
+        return new ProductImportResultDTO(counts[0], imported, failed, errors, failed > errors.size());
+    }
+
+    /**
+     * Bean validation plus the column limits of {@code products}, which would otherwise fail the
+     * whole COPY or INSERT instead of a single row.
+     */
+    String validate(ProductCreateDTO dto) {
+        Set<ConstraintViolation<ProductCreateDTO>> violations = validator.validate(dto);
+        List<String> messages = new ArrayList<>(violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .toList());
+        checkLength(messages, "sku", dto.sku(), 50);
+        checkLength(messages, "name", dto.name(), 255);
+        checkLength(messages, "category", dto.category(), 100);
+        if (dto.price() != null && dto.price().setScale(2, RoundingMode.HALF_UP).precision() > 10) {
+            messages.add("price: must be less than 100000000");
+        }
+        return messages.isEmpty() ? null : String.join("; ", messages);
+    }
+
+    private static void checkLength(List<String> messages, String field, String value, int max) {
+        if (value != null && value.trim().length() > max) {
+            messages.add(field + ": size must be at most " + max);
+        }
+    }
+
+    private static void addError(List<ProductImportErrorDTO> errors, ProductImportErrorDTO error) {
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    private static void writeStagingRow(Writer out, long rowNo, ProductCreateDTO dto) throws IOException {
+        out.write(Long.toString(rowNo));
+        out.write(',');
+        out.write(UuidV7Generator.next().toString());
+        out.write(',');
+        writeCsvField(out, dto.sku().trim());
+        out.write(',');
+        writeCsvField(out, dto.name().trim());
+        out.write(',');
+        if (dto.category() != null && !dto.category().isBlank()) {
+            writeCsvField(out, dto.category().trim());
+        }
+        out.write(',');
+        out.write(dto.price().toPlainString());
+        out.write(',');
+        out.write(Integer.toString(dto.stockQuantity() != null ? dto.stockQuantity() : 0));
+        out.write(',');
+        out.write(Integer.toString(dto.minStockLevel() != null ? dto.minStockLevel() : DEFAULT_MIN_STOCK_LEVEL));
+        out.write('\n');
+    }
+
+    /** Always quoted, so COPY reads empty strings as '' and not NULL. */
+    private static void writeCsvField(Writer out, String value) throws IOException {
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    record ParsedRow(long rowNo, String sku, ProductCreateDTO product, String error) {
+    }
+
+    interface RowReader {
+        /** Returns the next row, or null at end of input. */
+        ParsedRow next() throws IOException;
+    }
+
+    static final class NdjsonRowReader implements RowReader {
+
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private long rowNo;
+
+        NdjsonRowReader(InputStream body, ObjectMapper objectMapper) {
+            this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            rowNo++;
+            try {
+                ProductCreateDTO dto = objectMapper.readValue(line, ProductCreateDTO.class);
+                if (dto == null) {
+                    return new ParsedRow(rowNo, null, null, "Invalid JSON: expected an object");
+                }
+                return new ParsedRow(rowNo, dto.sku(), dto, null);
+            } catch (JsonProcessingException e) {
+                return new ParsedRow(rowNo, null, null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row naming the {@link ProductCreateDTO} fields (any order,
+     * case-insensitive). Quoted fields may contain commas, doubled quotes and line breaks.
+     */
+    static final class CsvRowReader implements RowReader {
+
+        private final Reader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private final StringBuilder field = new StringBuilder();
+        private long rowNo;
+        private boolean eof;
+
+        CsvRowReader(InputStream body) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            List<String> header = readRecord();
+            if (header == null) {
+                return;
+            }
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT);
+                if (i == 0 && name.startsWith("\uFEFF")) {
+                    name = name.substring(1);
+                }
+                columns.put(name, i);
+            }
+            List<String> missing = List.of("sku", "name", "price").stream()
+                    .filter(c -> !columns.containsKey(c))
+                    .toList();
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("CSV header is missing required columns: " + missing
+                        + ". Expected columns: " + CSV_COLUMNS);
+            }
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            List<String> record;
+            do {
+                record = readRecord();
+                if (record == null) {
+                    return null;
+                }
+            } while (record.size() == 1 && record.get(0).isBlank());
+            rowNo++;
+            String sku = column(record, "sku");
+            try {
+                ProductCreateDTO dto = new ProductCreateDTO(
+                        sku,
+                        column(record, "name"),
+                        column(record, "category"),
+                        parseDecimal("price", column(record, "price")),
+                        parseInteger("stockQuantity", column(record, "stockquantity")),
+                        parseInteger("minStockLevel", column(record, "minstocklevel"))
+                );
+                return new ParsedRow(rowNo, sku, dto, null);
+            } catch (NumberFormatException e) {
+                return new ParsedRow(rowNo, sku, null, e.getMessage());
+            }
+        }
+
+        private String column(List<String> record, String name) {
+            Integer index = columns.get(name);
+            if (index == null || index >= record.size()) {
+                return null;
+            }
+            String value = record.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private static BigDecimal parseDecimal(String field, String value) {
+            try {
+                return value != null ? new BigDecimal(value) : null;
+            } catch (NumberFormatException e) {
+                throw new NumberFormatException(field + ": not a valid number");
+            }
+        }
+
+        private static Integer parseInteger(String field, String value) {
+            try {
+                return value != null ? Integer.valueOf(value) : null;
+            } catch (NumberFormatException e) {
+                throw new NumberFormatException(field + ": not a valid integer");
+            }
+        }
+
+        private List<String> readRecord() throws IOException {
+            if (eof) {
+                return null;
+            }
+            List<String> record = new ArrayList<>();
+            field.setLength(0);
+            boolean quoted = false;
+            boolean any = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                any = true;
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int nextChar = reader.read();
+                        if (nextChar == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (nextChar != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    record.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            if (c == -1) {
+                eof = true;
+                if (!any) {
+                    return null;
+                }
+            }
+            record.add(field.toString());
+            return record;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.octavian.server.service;
+
+import com.octavian.server.dto.ProductResponseDTO;
+import com.octavian.server.event.ProductChangedEvent;
+import com.octavian.server.event.ProductsImportedEvent;
+import com.octavian.server.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index over product SKUs, name tokens and category tokens. The bulk of the
+ * postings live in an immutable sorted array searched by binary search; products added since the
+ * last merge sit in a small concurrent skip list until it outgrows {@code merge-threshold} and is
+ * folded into a new array in the background. SKU, name and category never change after a product
+ * is created, so the index only ever grows and stock changes do not touch it.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    private static final char SKU = 's';
+    private static final char NAME = 'n';
+    private static final char CATEGORY = 'c';
+    private static final char ID_SEPARATOR = '\u0000';
+    private static final char RANGE_END = '\uffff';
+    private static final int LOAD_BATCH_SIZE = 5000;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ProductRepository productRepository;
+    private final int mergeThreshold;
+    private final Map<UUID, Doc> docs = new ConcurrentHashMap<>();
+    /** Postings added since the last merge, keyed by posting key + separator + product id. */
+    private final ConcurrentSkipListMap<String, Doc> delta = new ConcurrentSkipListMap<>();
+    /** Size of {@link #delta}, which a skip list can only count by walking it. */
+    private final AtomicInteger deltaSize = new AtomicInteger();
+    private final AtomicBoolean mergeScheduled = new AtomicBoolean();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-search-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Segment base = Segment.EMPTY;
+    private volatile boolean ready;
+
+    public ProductSearchIndex(
+            ProductRepository productRepository,
+            @Value("${inventory.products.search.merge-threshold:20000}") int mergeThreshold) {
+        this.productRepository = productRepository;
+        this.mergeThreshold = Math.max(1, mergeThreshold);
+    }
+
+    /** False until the initial load has finished; callers fall back to the database meanwhile. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Ids of up to {@code limit} products: SKU prefix matches first, then products whose name has a
+     * word starting with each query word, then the same on category.
+     */
+    public List<UUID> search(String query, int limit) {
+        String normalized = query.trim().toLowerCase(Locale.ROOT);
+        Set<UUID> hits = new LinkedHashSet<>();
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        collect(SKU + normalized, doc -> true, hits, limit);
+        List<String> words = tokenize(normalized);
+        if (!words.isEmpty()) {
+            // Scan the range of the longest word, usually the most selective one
+            String longest = words.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+            collect(NAME + longest, doc -> matchesAll(doc.nameTokens(), words), hits, limit);
+            collect(CATEGORY + longest, doc -> matchesAll(doc.categoryTokens(), words), hits, limit);
+        }
+        return List.copyOf(hits);
+    }
+
+    /** Adds products and merges them into the sorted array immediately; used for bulk loads. */
+    public void load(Collection<ProductResponseDTO> products) {
+        products.forEach(this::add);
+        merge();
+        ready = true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFromDatabase() {
+        worker.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                addAllAfter(new UUID(0, 0));
+                merge();
+                ready = true;
+                log.info("Product search index loaded {} products in {} ms",
+                        docs.size(), (System.nanoTime() - start) / 1_000_000);
+            } catch (RuntimeException e) {
+                log.error("Could not load the product search index; search stays on the database", e);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        add(event.product());
+        scheduleMergeIfNeeded();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        worker.execute(() -> {
+            addAllAfter(event.idsAfter());
+            scheduleMergeIfNeeded();
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.shutdownNow();
+    }
+
+    private void addAllAfter(UUID after) {
+        List<ProductResponseDTO> batch;
+        do {
+            batch = productRepository.findAllAfterId(after, Limit.of(LOAD_BATCH_SIZE));
+            batch.forEach(this::add);
+            if (!batch.isEmpty()) {
+                after = batch.get(batch.size() - 1).id();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+    }
+
+    private void add(ProductResponseDTO product) {
+        if (docs.containsKey(product.id())) {
+            return;
+        }
+        Doc doc = new Doc(product.id(), tokenize(product.name()), tokenize(product.category()));
+        if (docs.putIfAbsent(doc.id(), doc) != null) {
+            return;
+        }
+        String suffix = ID_SEPARATOR + doc.id().toString();
+        delta.put(SKU + product.sku().toLowerCase(Locale.ROOT) + suffix, doc);
+        for (String token : doc.nameTokens()) {
+            delta.put(NAME + token + suffix, doc);
+        }
+        for (String token : doc.categoryTokens()) {
+            delta.put(CATEGORY + token + suffix, doc);
+        }
+        deltaSize.addAndGet(1 + doc.nameTokens().length + doc.categoryTokens().length);
+    }
+
+    private void scheduleMergeIfNeeded() {
+        if (ready && deltaSize.get() >= mergeThreshold && mergeScheduled.compareAndSet(false, true)) {
+            worker.execute(() -> {
+                mergeScheduled.set(false);
+                merge();
+            });
+        }
+    }
+
+    /** Folds the current delta into a new sorted array; searches see both until the delta is trimmed. */
+    private synchronized void merge() {
+        List<Map.Entry<String, Doc>> added = new ArrayList<>(delta.entrySet());
+        if (added.isEmpty()) {
+            return;
+        }
+        Segment current = base;
+        List<Posting> postings = new ArrayList<>(current.keys().length + added.size());
+        for (int i = 0; i < current.keys().length; i++) {
+            postings.add(new Posting(current.keys()[i], current.docs()[i]));
+        }
+        Map<String, String> canonical = new HashMap<>();
+        for (Map.Entry<String, Doc> entry : added) {
+            String key = entry.getKey().substring(0, entry.getKey().lastIndexOf(ID_SEPARATOR));
+            postings.add(new Posting(canonical.computeIfAbsent(key, k -> k), entry.getValue()));
+        }
+        postings.sort(Comparator.comparing(Posting::key).thenComparing(posting -> posting.doc().id()));
+
+        String[] keys = new String[postings.size()];
+        Doc[] docsByKey = new Doc[postings.size()];
+        for (int i = 0; i < postings.size(); i++) {
+            keys[i] = postings.get(i).key();
+            docsByKey[i] = postings.get(i).doc();
+        }
+        base = new Segment(keys, docsByKey);
+        added.forEach(entry -> delta.remove(entry.getKey(), entry.getValue()));
+        deltaSize.addAndGet(-added.size());
+    }
+
+    private void collect(String prefix, Predicate<Doc> filter, Set<UUID> hits, int limit) {
+        Segment segment = base;
+        String end = prefix + RANGE_END;
+        for (int i = segment.lowerBound(prefix); i < segment.keys().length && hits.size() < limit; i++) {
+            if (segment.keys()[i].compareTo(end) >= 0) {
+                break;
+            }
+            Doc doc = segment.docs()[i];
+            if (filter.test(doc)) {
+                hits.add(doc.id());
+            }
+        }
+        NavigableMap<String, Doc> recent = delta.subMap(prefix, true, end, false);
+        for (Doc doc : recent.values()) {
+            if (hits.size() >= limit) {
+                break;
+            }
+            if (filter.test(doc)) {
+                hits.add(doc.id());
+            }
+        }
+    }
+
+    private static boolean matchesAll(String[] tokens, List<String> words) {
+        for (String word : words) {
+            boolean matched = false;
+            for (String token : tokens) {
+                if (token.startsWith(word)) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private record Doc(UUID id, String[] nameTokens, String[] categoryTokens) {
+
+        private Doc(UUID id, List<String> nameTokens, List<String> categoryTokens) {
+            this(id, nameTokens.toArray(String[]::new), categoryTokens.toArray(String[]::new));
+        }
+    }
+
+    private record Posting(String key, Doc doc) {
+    }
+
+    private record Segment(String[] keys, Doc[] docs) {
+
+        static final Segment EMPTY = new Segment(new String[0], new Doc[0]);
+
+        /** Index of the first key not less than {@code key}. */
+        int lowerBound(String key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.octavian.server.service;
+
+import com.octavian.server.dto.ProductResponseDTO;
+import com.octavian.server.repository.ProductRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Product search for the search box and barcode scanners. Prefix matches come from
+ * {@link ProductSearchIndex}; when it has loaded and fills the limit, that is the whole answer.
+ * Otherwise the database tops the results up with substring matches and then pg_trgm
+ * similarity for typos, skipping products already found. Matches are returned through
+ * {@link ProductService#getProductById}, so stock is as fresh as a by-id read.
+ */
+@Slf4j
+@Service
+public class ProductSearchService {
+
+    private static final int MAX_LIMIT = 50;
+    private static final int MIN_FUZZY_LENGTH = 3;
+
+    private final ProductSearchIndex index;
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile boolean trigramAvailable;
+
+    public ProductSearchService(
+            ProductSearchIndex index,
+            ProductRepository productRepository,
+            ProductService productService,
+            JdbcTemplate jdbcTemplate) {
+        this.index = index;
+        this.productRepository = productRepository;
+        this.productService = productService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<ProductResponseDTO> search(String query, int limit) {
+        String q = query == null ? "" : query.trim();
+        if (q.isEmpty()) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+        int safeLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        Set<UUID> ids = new LinkedHashSet<>(index.isReady() ? index.search(q, safeLimit) : List.of());
+        if (ids.size() < safeLimit) {
+            searchDatabase(q, safeLimit, ids);
+        }
+        List<ProductResponseDTO> results = new ArrayList<>(ids.size());
+        for (UUID id : ids.stream().limit(safeLimit).toList()) {
+            try {
+                results.add(productService.getProductById(id));
+            } catch (EntityNotFoundException ignored) {
+                // Indexed but gone; products are never deleted today, so this is only defensive
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Creates the pg_trgm extension and the search indexes if the database user may. Without them
+     * the database fallback still works, just by sequential scan and without typo tolerance.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createSearchIndexes() {
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON products USING gin (name gin_trgm_ops)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_products_category_trgm ON products USING gin (category gin_trgm_ops)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_products_sku_lower ON products (lower(sku) text_pattern_ops)");
+            trigramAvailable = true;
+        } catch (RuntimeException e) {
+            log.warn("pg_trgm is not available ({}); database product search falls back to plain LIKE scans", e.getMessage());
+        }
+    }
+
+    /**
+     * Adds database matches to {@code ids}. Each query asks for the full limit, since its first rows
+     * may be products that are already there.
+     */
+    private void searchDatabase(String q, int limit, Set<UUID> ids) {
+        String escaped = q.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        ids.addAll(productRepository.searchIdsByPattern(escaped + "%", "%" + escaped + "%", limit));
+        if (ids.size() < limit && trigramAvailable && q.length() >= MIN_FUZZY_LENGTH) {
+            ids.addAll(productRepository.searchIdsBySimilarity(q, limit));
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package com.octavian.server.service;
 
+import com.octavian.server.dto.CursorPageDTO;
 import com.octavian.server.dto.ProductCreateDTO;
+import com.octavian.server.dto.ProductFilterDTO;
 import com.octavian.server.dto.ProductResponseDTO;
+import com.octavian.server.event.ProductChangedEvent;
 import com.octavian.server.exception.DuplicateResourceException;
 import com.octavian.server.model.Product;
 import com.octavian.server.repository.ProductRepository;
+import com.octavian.server.repository.ProductSort;
+import com.octavian.server.repository.ProductStockView;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,8 +26,12 @@ import java.util.UUID;
 public class ProductService {
 
     private static final int DEFAULT_MIN_STOCK_LEVEL = 5;
+    private static final int MAX_PAGE_SIZE = 500;
 
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final LowStockIndex lowStockIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public ProductResponseDTO createProduct(ProductCreateDTO dto) {
@@ -36,43 +48,93 @@ public class ProductService {
                 .minStockLevel(dto.minStockLevel() != null ? dto.minStockLevel() : DEFAULT_MIN_STOCK_LEVEL)
                 .build();
 
-        Product saved = productRepository.save(product);
-        return toResponseDTO(saved);
+        ProductResponseDTO saved = toResponseDTO(productRepository.save(product));
+        eventPublisher.publishEvent(new ProductChangedEvent(saved));
+        return saved;
     }
 
+    /**
+     * One page of the catalog, at most {@value #MAX_PAGE_SIZE} products, read as DTOs. Pass the
+     * previous page's {@code nextCursor} (with the same sort) to continue.
+     */
     @Transactional(readOnly = true)
-    public List<ProductResponseDTO> getAllProducts() {
-        return productRepository.findAll()
-                .stream()
-                .map(ProductService::toResponseDTO)
-                .toList();
+    public CursorPageDTO<ProductResponseDTO> getProducts(
+            ProductFilterDTO filter, ProductSort sort, Sort.Direction direction, int limit, String cursor) {
+        if (filter.minPrice() != null && filter.maxPrice() != null && filter.minPrice().compareTo(filter.maxPrice()) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        int safeLimit = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        ProductCursor after = ProductCursor.decode(cursor, sort, direction);
+        List<ProductResponseDTO> rows = productRepository.findPage(
+                filter,
+                sort,
+                direction,
+                after != null ? after.value() : null,
+                after != null ? after.id() : null,
+                safeLimit + 1);
+        if (rows.size() <= safeLimit) {
+            return new CursorPageDTO<>(rows, null);
+        }
+        List<ProductResponseDTO> page = rows.subList(0, safeLimit);
+        ProductResponseDTO last = page.get(safeLimit - 1);
+        return new CursorPageDTO<>(page, new ProductCursor(sort, direction, sortValue(last, sort), last.id()).encode());
     }
 
-    @Transactional(readOnly = true)
     public ProductResponseDTO getProductById(UUID id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
-        return toResponseDTO(product);
+        return productCache.get(id, key -> productRepository.findById(key)
+                .map(ProductService::toResponseDTO)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + key)));
+    }
+
+    /**
+     * Products at or below their minimum stock level, furthest below it first. Served from memory;
+     * the database is only asked while the index is still being rebuilt after startup.
+     */
+    public List<ProductResponseDTO> getLowStockProducts(int limit) {
+        int safeLimit = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        if (lowStockIndex.isReady()) {
+            return lowStockIndex.top(safeLimit);
+        }
+        return productRepository.findLowStock(Limit.of(safeLimit));
     }
 
     @Transactional
     public ProductResponseDTO updateStock(UUID id, int adjustment) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
-
-        int newStock = product.getStockQuantity() + adjustment;
-        if (newStock < 0) {
+        ProductStockView updated = productRepository.applyStockDelta(id, adjustment).orElse(null);
+        if (updated == null) {
+            Integer current = productRepository.findStockQuantityById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
             throw new IllegalArgumentException(
                     "Stock adjustment would result in negative stock. Current: "
-                            + product.getStockQuantity() + ", Adjustment: " + adjustment);
+                            + current + ", Adjustment: " + adjustment);
         }
 
-        product.setStockQuantity(newStock);
-        Product saved = productRepository.save(product);
-        return toResponseDTO(saved);
+        ProductResponseDTO product = toResponseDTO(updated);
+        eventPublisher.publishEvent(new ProductChangedEvent(product));
+        return product;
+    }
+
+    private static Comparable<?> sortValue(ProductResponseDTO product, ProductSort sort) {
+        return switch (sort) {
+            case SKU -> product.sku();
+            case NAME -> product.name();
+            case PRICE -> product.price();
+        };
+    }
+
+    static ProductResponseDTO toResponseDTO(ProductStockView product) {
+        return new ProductResponseDTO(
+                product.getId(),
+                product.getSku(),
+                product.getName(),
+                product.getCategory(),
+                product.getPrice(),
+                product.getStockQuantity(),
+                product.getMinStockLevel()
+        );
     }
 
-    private static ProductResponseDTO toResponseDTO(Product product) {
+    static ProductResponseDTO toResponseDTO(Product product) {
         return new ProductResponseDTO(
                 product.getId(),
                 product.getSku(),
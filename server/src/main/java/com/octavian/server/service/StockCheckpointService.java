@@ -0,0 +1,250 @@
+package com.octavian.server.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.octavian.server.dto.StockAsOfDTO;
+import com.octavian.server.event.HistoryRetiredEvent;
+import com.octavian.server.exception.HistoryUnavailableException;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Point-in-time stock. A scheduled job writes a checkpoint for every product that moved since the
+ * previous run; the stock as of T is then the {@code resultingStock} of the product's last movement
+ * between its latest checkpoint before T and T, or the checkpoint itself when there is none. The
+ * replay is a single backward index probe bounded by one checkpoint interval, and checkpoints keep
+ * answering for months whose movement partitions have been retired.
+ * <p>
+ * Without a checkpoint before T, the stock is what the product had before its first movement
+ * after T. That only holds while the ledger before T is complete: once partitions have been
+ * retired, an instant before them that no checkpoint covers is reported as unknown rather than
+ * answered from whatever movement survived. Products did not exist before they were created.
+ * Like the daily rollups, the job leaves movements younger than {@code lag} for the next run.
+ */
+@Slf4j
+@Service
+public class StockCheckpointService {
+
+    private static final String WATERMARK = "stock_checkpoints";
+    /** Start of the surviving {@code stock_movements} history, once partitions have been retired. */
+    private static final String RETIRED_WATERMARK = "stock_movements_retired";
+    private static final UUID FIRST_ID = new UUID(0, 0);
+    private static final UUID LAST_ID = new UUID(-1, -1);
+    private static final int CHUNK_SIZE = 2000;
+
+    /**
+     * Checkpoint, then the last movement after it, then the stock before the first movement after T
+     * or the current stock; null when T lies in retired history. Skips products created after T.
+     */
+    private static final String STOCK_AS_OF = """
+            SELECT p.id, p.sku,
+                   COALESCE(
+                       (SELECT m.resulting_stock FROM stock_movements m
+                        WHERE m.product_id = p.id AND m.created_at <= ?
+                          AND m.created_at > COALESCE(c.taken_at, '-infinity')
+                        ORDER BY m.created_at DESC, m.id DESC
+                        LIMIT 1),
+                       c.stock_quantity,
+                       CASE WHEN ? >= COALESCE((SELECT last_created_at FROM report_watermarks WHERE name = ?), '-infinity')
+                       THEN COALESCE(
+                           (SELECT m.resulting_stock - m.adjustment FROM stock_movements m
+                            WHERE m.product_id = p.id AND m.created_at > ?
+                            ORDER BY m.created_at, m.id
+                            LIMIT 1),
+                           p.stock_quantity)
+                       END)
+            FROM products p
+            LEFT JOIN LATERAL (
+                SELECT taken_at, stock_quantity FROM stock_checkpoints
+                WHERE product_id = p.id AND taken_at <= ?
+                ORDER BY taken_at DESC
+                LIMIT 1
+            ) c ON true
+            WHERE (p.created_at IS NULL OR p.created_at <= ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Duration lag;
+    private final int parallelism;
+    private final ExecutorService workers;
+
+    public StockCheckpointService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            @Value("${inventory.stock-checkpoints.enabled:true}") boolean enabled,
+            @Value("${inventory.stock-checkpoints.lag:PT5M}") Duration lag,
+            @Value("${inventory.stock-checkpoints.parallelism:4}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.lag = lag;
+        this.parallelism = Math.max(parallelism, 1);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "stock-as-of-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(cron = "${inventory.stock-checkpoints.cron:0 5 * * * *}", zone = "UTC")
+    public void checkpoint() {
+        if (!enabled) {
+            return;
+        }
+        Timestamp takenAt = Timestamp.from(Instant.now().minus(lag));
+        try {
+            int written = transactionTemplate.execute(status -> writeCheckpoints(takenAt));
+            log.info("Wrote {} stock checkpoints as of {}", written, takenAt.toInstant());
+        } catch (RuntimeException e) {
+            log.error("Stock checkpoint failed; the next run covers the same movements", e);
+        }
+    }
+
+    public StockAsOfDTO getStockAsOf(UUID productId, Instant asOf) {
+        Timestamp at = Timestamp.from(asOf);
+        StockAsOfDTO stock = jdbcTemplate.query(STOCK_AS_OF + "AND p.id = ?",
+                        (rs, rowNum) -> toStockAsOf(rs, asOf), at, at, RETIRED_WATERMARK, at, at, at, productId)
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + productId + " as of " + asOf));
+        if (stock.stockQuantity() == null) {
+            throw new HistoryUnavailableException("Stock as of " + asOf + " is unknown: the movements before it have been retired");
+        }
+        return stock;
+    }
+
+    /** Remembers where the surviving movement history starts, in the transaction that retired the rest. */
+    @EventListener
+    public void onHistoryRetired(HistoryRetiredEvent event) {
+        if (!event.table().equals("stock_movements")) {
+            return;
+        }
+        jdbcTemplate.update("""
+                INSERT INTO report_watermarks (name, last_created_at, last_id) VALUES (?, ?, ?)
+                ON CONFLICT (name) DO UPDATE SET last_created_at = GREATEST(report_watermarks.last_created_at, EXCLUDED.last_created_at)
+                """, RETIRED_WATERMARK, Timestamp.from(event.before()), FIRST_ID);
+    }
+
+    /**
+     * Writes the stock of every product as of {@code asOf} as NDJSON, in id order. Products are split
+     * into id ranges of {@value #CHUNK_SIZE} that are queried {@code parallelism} at a time, each on
+     * its own connection; at most that many ranges are held in memory. Products created after
+     * {@code asOf} are left out, and a stock that lies in retired history is written as null.
+     */
+    public void exportStockAsOf(Instant asOf, OutputStream out) throws IOException {
+        List<UUID> bounds = new ArrayList<>(jdbcTemplate.queryForList("""
+                SELECT id FROM (SELECT id, row_number() OVER (ORDER BY id) AS position FROM products) numbered
+                WHERE position % ? = 0
+                ORDER BY id
+                """, UUID.class, CHUNK_SIZE));
+        bounds.add(LAST_ID);
+
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.setRootValueSeparator(null);
+        Deque<Future<List<StockAsOfDTO>>> pending = new ArrayDeque<>();
+        UUID lower = FIRST_ID;
+        int next = 0;
+        try {
+            while (next < bounds.size() || !pending.isEmpty()) {
+                while (next < bounds.size() && pending.size() < parallelism) {
+                    UUID from = lower;
+                    UUID to = bounds.get(next++);
+                    pending.add(workers.submit(() -> queryRange(asOf, from, to)));
+                    lower = to;
+                }
+                for (StockAsOfDTO row : await(pending.removeFirst())) {
+                    generator.writeObject(row);
+                    generator.writeRaw('\n');
+                }
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+        generator.flush();
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    private int writeCheckpoints(Timestamp takenAt) {
+        jdbcTemplate.update("""
+                INSERT INTO report_watermarks (name, last_created_at, last_id) VALUES (?, ?, ?)
+                ON CONFLICT (name) DO NOTHING
+                """, WATERMARK, Timestamp.from(Instant.EPOCH), FIRST_ID);
+        // The row lock keeps a run on another node from writing the same checkpoints
+        Timestamp after = jdbcTemplate.queryForObject(
+                "SELECT last_created_at FROM report_watermarks WHERE name = ? FOR UPDATE", Timestamp.class, WATERMARK);
+        if (!takenAt.after(after)) {
+            return 0;
+        }
+        int written = jdbcTemplate.update("""
+                INSERT INTO stock_checkpoints (product_id, taken_at, stock_quantity)
+                SELECT DISTINCT ON (product_id) product_id, ?, resulting_stock
+                FROM stock_movements
+                WHERE created_at > ? AND created_at <= ?
+                ORDER BY product_id, created_at DESC, id DESC
+                ON CONFLICT DO NOTHING
+                """, takenAt, after, takenAt);
+        // Everything at or before takenAt is covered, whatever its id
+        jdbcTemplate.update("UPDATE report_watermarks SET last_created_at = ?, last_id = ? WHERE name = ?",
+                takenAt, LAST_ID, WATERMARK);
+        return written;
+    }
+
+    private List<StockAsOfDTO> queryRange(Instant asOf, UUID after, UUID upTo) {
+        Timestamp at = Timestamp.from(asOf);
+        return jdbcTemplate.query(STOCK_AS_OF + "AND p.id > ? AND p.id <= ? ORDER BY p.id",
+                (rs, rowNum) -> toStockAsOf(rs, asOf), at, at, RETIRED_WATERMARK, at, at, at, after, upTo);
+    }
+
+    private static List<StockAsOfDTO> await(Future<List<StockAsOfDTO>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading stock", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static StockAsOfDTO toStockAsOf(ResultSet rs, Instant asOf) throws SQLException {
+        return new StockAsOfDTO(rs.getObject(1, UUID.class), rs.getString(2), asOf, rs.getObject(3, Integer.class));
+    }
+}
@@ -0,0 +1,208 @@
+package com.octavian.server.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.octavian.server.dto.StockMovementExportQuery;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams the movement ledger, oldest first, straight from a server-side cursor to the response.
+ * PostgreSQL only honours the fetch size inside a transaction, so each export runs in its own
+ * read-only transaction and holds at most {@value #FETCH_SIZE} rows at a time, whatever its size.
+ */
+@Service
+public class StockMovementExportService {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final String[] COLUMNS = {
+            "id", "productId", "sku", "productName", "type", "adjustment", "resultingStock",
+            "fromBusiness", "toBusiness", "note", "performedByUserId", "performedByEmail", "createdAt"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public StockMovementExportService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void export(StockMovementExportQuery query, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        RowWriter rows = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(objectMapper, writer);
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> stream(query, rs -> {
+                try {
+                    rows.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        rows.finish();
+        writer.flush();
+    }
+
+    private void stream(StockMovementExportQuery query, RowCallbackHandler handler) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT m.id, m.product_id, m.sku, m.product_name, m.type, m.adjustment, m.resulting_stock,
+                       m.from_business, m.to_business, m.note, m.performed_by_id, u.email, m.created_at
+                FROM stock_movements m
+                LEFT JOIN app_users u ON u.id = m.performed_by_id
+                WHERE TRUE
+                """);
+        List<Object> params = new ArrayList<>();
+        if (query.from() != null) {
+            sql.append(" AND m.created_at >= ?");
+            params.add(Timestamp.from(query.from()));
+        }
+        if (query.to() != null) {
+            sql.append(" AND m.created_at < ?");
+            params.add(Timestamp.from(query.to()));
+        }
+        if (query.productId() != null) {
+            sql.append(" AND m.product_id = ?");
+            params.add(query.productId());
+        }
+        sql.append(" ORDER BY m.created_at, m.id");
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        }, handler);
+    }
+
+    private static String createdAt(ResultSet rs) throws SQLException {
+        return rs.getObject(13, OffsetDateTime.class).toInstant().toString();
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        default void finish() throws IOException {
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+        private boolean headerWritten;
+
+        private CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            if (!headerWritten) {
+                writeHeader();
+            }
+            for (int i = 1; i <= COLUMNS.length; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                writeField(i == COLUMNS.length ? createdAt(rs) : rs.getString(i));
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (!headerWritten) {
+                writeHeader();
+            }
+        }
+
+        private void writeHeader() throws IOException {
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+            headerWritten = true;
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        private NdjsonRowWriter(ObjectMapper objectMapper, Writer writer) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(writer)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeStringField("id", rs.getString(1));
+            generator.writeStringField("productId", rs.getString(2));
+            generator.writeStringField("sku", rs.getString(3));
+            generator.writeStringField("productName", rs.getString(4));
+            generator.writeStringField("type", rs.getString(5));
+            generator.writeNumberField("adjustment", rs.getInt(6));
+            generator.writeNumberField("resultingStock", rs.getInt(7));
+            generator.writeStringField("fromBusiness", rs.getString(8));
+            generator.writeStringField("toBusiness", rs.getString(9));
+            generator.writeStringField("note", rs.getString(10));
+            generator.writeStringField("performedByUserId", rs.getString(11));
+            generator.writeStringField("performedByEmail", rs.getString(12));
+            generator.writeStringField("createdAt", createdAt(rs));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.close();
+        }
+    }
+}
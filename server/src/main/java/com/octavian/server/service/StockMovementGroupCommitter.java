@@ -0,0 +1,258 @@
+package com.octavian.server.service;
+
+import com.octavian.server.dto.StockMovementCreateDTO;
+import com.octavian.server.dto.StockMovementResponseDTO;
+import com.octavian.server.event.ProductChangedEvent;
+import com.octavian.server.event.StockMovementsRecordedEvent;
+import com.octavian.server.model.Product;
+import com.octavian.server.model.StockMovement;
+import com.octavian.server.model.User;
+import com.octavian.server.repository.ProductRepository;
+import com.octavian.server.repository.StockMovementRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Opt-in group commit for stock movements. Movements are queued on a stripe chosen by product id;
+ * each stripe's worker collects up to {@code max-batch-size} movements or waits at most
+ * {@code max-wait-ms}, then applies the whole batch in one transaction: one locked read and one
+ * UPDATE per product plus a batched insert of all movement rows. Every caller gets its own
+ * response, or its own error when its movement would drive the stock negative.
+ */
+@Slf4j
+@Service
+public class StockMovementGroupCommitter {
+
+    /** Same order as PostgreSQL sorts uuid values, so every writer locks products in one order. */
+    static final Comparator<UUID> LOCK_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private static final long IDLE_POLL_MS = 100;
+
+    private final ProductRepository productRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final long maxWaitNanos;
+    private final int maxBatchSize;
+    private final long callerTimeoutMs;
+    private final List<Stripe> stripes = new ArrayList<>();
+
+    private volatile boolean running;
+
+    public StockMovementGroupCommitter(
+            ProductRepository productRepository,
+            StockMovementRepository stockMovementRepository,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${inventory.stock-movements.group-commit.enabled:false}") boolean enabled,
+            @Value("${inventory.stock-movements.group-commit.max-wait-ms:5}") long maxWaitMs,
+            @Value("${inventory.stock-movements.group-commit.max-batch-size:100}") int maxBatchSize,
+            @Value("${inventory.stock-movements.group-commit.stripes:8}") int stripeCount,
+            @Value("${inventory.stock-movements.group-commit.caller-timeout-ms:30000}") long callerTimeoutMs) {
+        this.productRepository = productRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMs));
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.callerTimeoutMs = callerTimeoutMs;
+        for (int i = 0; i < Math.max(1, stripeCount); i++) {
+            stripes.add(new Stripe(i));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        stripes.forEach(Stripe::start);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        for (Stripe stripe : stripes) {
+            stripe.join();
+        }
+        // Anything that slipped in after the workers exited would otherwise wait for its timeout.
+        IllegalStateException shuttingDown = new IllegalStateException("Stock movement group commit is shutting down");
+        for (Stripe stripe : stripes) {
+            PendingMovement pending;
+            while ((pending = stripe.queue.poll()) != null) {
+                pending.future().completeExceptionally(shuttingDown);
+            }
+        }
+    }
+
+    /**
+     * Queues the movement and blocks until the batch containing it has committed. A timeout does
+     * not cancel the movement; it may still be applied by a later commit.
+     */
+    public StockMovementResponseDTO submit(StockMovementCreateDTO dto, User performedBy) {
+        if (!running) {
+            throw new IllegalStateException("Stock movement group commit is not running");
+        }
+        PendingMovement pending = new PendingMovement(dto, performedBy, new CompletableFuture<>());
+        stripes.get(Math.floorMod(dto.productId().hashCode(), stripes.size())).queue.add(pending);
+        try {
+            return pending.future().get(callerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for stock movement commit", e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out waiting for stock movement commit");
+        }
+    }
+
+    private void commit(List<PendingMovement> batch) {
+        Map<UUID, List<PendingMovement>> byProduct = new TreeMap<>(LOCK_ORDER);
+        for (PendingMovement pending : batch) {
+            byProduct.computeIfAbsent(pending.dto().productId(), id -> new ArrayList<>()).add(pending);
+        }
+
+        // Callers are only answered once the transaction has committed.
+        List<Runnable> completions = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                completions.clear();
+                List<PendingMovement> accepted = new ArrayList<>();
+                List<StockMovement> movements = new ArrayList<>();
+                for (Map.Entry<UUID, List<PendingMovement>> entry : byProduct.entrySet()) {
+                    UUID productId = entry.getKey();
+                    Product product = productRepository.findForUpdateById(productId).orElse(null);
+                    if (product == null) {
+                        EntityNotFoundException notFound =
+                                new EntityNotFoundException("Product not found with id: " + productId);
+                        entry.getValue().forEach(p -> completions.add(() -> p.future().completeExceptionally(notFound)));
+                        continue;
+                    }
+                    int stock = product.getStockQuantity();
+                    for (PendingMovement pending : entry.getValue()) {
+                        int adjustment = pending.dto().adjustment();
+                        if (stock + adjustment < 0) {
+                            IllegalArgumentException negative = new IllegalArgumentException(
+                                    "Stock adjustment would result in negative stock. Current: "
+                                            + stock + ", Adjustment: " + adjustment);
+                            completions.add(() -> pending.future().completeExceptionally(negative));
+                            continue;
+                        }
+                        stock += adjustment;
+                        accepted.add(pending);
+                        movements.add(StockMovementService.toMovement(pending.dto(), product, stock, pending.performedBy()));
+                    }
+                    product.setStockQuantity(stock);
+                    eventPublisher.publishEvent(new ProductChangedEvent(ProductService.toResponseDTO(product)));
+                }
+                List<StockMovement> stored = stockMovementRepository.saveAll(movements);
+                List<StockMovementResponseDTO> responses = new ArrayList<>(stored.size());
+                for (int i = 0; i < stored.size(); i++) {
+                    PendingMovement pending = accepted.get(i);
+                    StockMovementResponseDTO response = StockMovementService.toResponseDTO(stored.get(i));
+                    responses.add(response);
+                    completions.add(() -> pending.future().complete(response));
+                }
+                if (!responses.isEmpty()) {
+                    eventPublisher.publishEvent(new StockMovementsRecordedEvent(responses));
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Group commit of {} stock movements failed", batch.size(), e);
+            batch.forEach(p -> p.future().completeExceptionally(e));
+            return;
+        }
+        completions.forEach(Runnable::run);
+    }
+
+    private record PendingMovement(
+            StockMovementCreateDTO dto,
+            User performedBy,
+            CompletableFuture<StockMovementResponseDTO> future
+    ) {
+    }
+
+    private final class Stripe implements Runnable {
+
+        private final BlockingQueue<PendingMovement> queue = new LinkedBlockingQueue<>();
+        private final Thread thread;
+
+        private Stripe(int index) {
+            this.thread = new Thread(this, "stock-group-commit-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private void start() {
+            thread.start();
+        }
+
+        private void join() throws InterruptedException {
+            if (thread.isAlive()) {
+                thread.join();
+            }
+        }
+
+        @Override
+        public void run() {
+            List<PendingMovement> batch = new ArrayList<>(maxBatchSize);
+            boolean interrupted = false;
+            while (!interrupted && (running || !queue.isEmpty())) {
+                try {
+                    PendingMovement first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    long deadline = System.nanoTime() + maxWaitNanos;
+                    while (batch.size() < maxBatchSize) {
+                        long remaining = deadline - System.nanoTime();
+                        PendingMovement next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    interrupted = true;
+                }
+                if (!batch.isEmpty()) {
+                    commit(batch);
+                    batch.clear();
+                }
+            }
+        }
+    }
+}
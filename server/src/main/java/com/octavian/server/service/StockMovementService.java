@@ -1,23 +1,36 @@
 package com.octavian.server.service;
 
+import com.octavian.server.dto.CursorPageDTO;
 import com.octavian.server.dto.ProductResponseDTO;
 import com.octavian.server.dto.StockMovementCreateDTO;
 import com.octavian.server.dto.StockMovementResponseDTO;
+import com.octavian.server.event.ProductChangedEvent;
+import com.octavian.server.event.StockMovementsRecordedEvent;
 import com.octavian.server.model.Product;
 import com.octavian.server.model.StockMovement;
 import com.octavian.server.model.StockMovementType;
 import com.octavian.server.model.User;
 import com.octavian.server.repository.ProductRepository;
+import com.octavian.server.repository.ProductStockView;
 import com.octavian.server.repository.StockMovementRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -26,11 +39,25 @@ public class StockMovementService {
     private final ProductRepository productRepository;
     private final StockMovementRepository stockMovementRepository;
     private final UserService userService;
+    private final StockMovementGroupCommitter groupCommitter;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Transactional
+    /** Whether single movements commit in the group committer's transactions rather than the caller's. */
+    public boolean isGroupCommitEnabled() {
+        return groupCommitter.isEnabled();
+    }
+
+    /**
+     * The user is resolved in its own transaction first, so the movement transaction (which may run
+     * on a group-commit worker) can always reference a committed row.
+     */
     public StockMovementResponseDTO createMovement(StockMovementCreateDTO dto, Jwt jwt) {
         User performedBy = jwt != null ? userService.getOrCreateUserFromJwt(jwt) : null;
-        return adjustStockWithAuditMovement(
+        if (groupCommitter.isEnabled()) {
+            return groupCommitter.submit(dto, performedBy);
+        }
+        return transactionTemplate.execute(status -> adjustStockWithAuditMovement(
                 dto.productId(),
                 dto.adjustment(),
                 dto.type(),
@@ -38,7 +65,7 @@ public class StockMovementService {
                 dto.toBusiness(),
                 dto.note(),
                 performedBy
-        );
+        ));
     }
 
     @Transactional
@@ -51,35 +78,8 @@ public class StockMovementService {
             String note,
             User performedBy
     ) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + productId));
-
-        int newStock = product.getStockQuantity() + adjustment;
-        if (newStock < 0) {
-            throw new IllegalArgumentException(
-                    "Stock adjustment would result in negative stock. Current: "
-                            + product.getStockQuantity() + ", Adjustment: " + adjustment);
-        }
-
-        product.setStockQuantity(newStock);
-        Product saved = productRepository.save(product);
-
-        StockMovement movement = StockMovement.builder()
-                .product(saved)
-                .sku(saved.getSku())
-                .productName(saved.getName())
-                .type(type)
-                .adjustment(adjustment)
-                .resultingStock(newStock)
-                .fromBusiness(blankToNull(fromBusiness))
-                .toBusiness(blankToNull(toBusiness))
-                .note(blankToNull(note))
-                .performedBy(performedBy)
-                .build();
-
-        StockMovement stored = stockMovementRepository.save(movement);
-
-        return toResponseDTO(stored);
+        ProductStockView updated = applyStockDelta(productId, adjustment);
+        return recordMovement(updated, adjustment, type, fromBusiness, toBusiness, note, performedBy);
     }
 
     @Transactional
@@ -93,29 +93,133 @@ public class StockMovementService {
             Jwt jwt
     ) {
         User performedBy = jwt != null ? userService.getOrCreateUserFromJwt(jwt) : null;
-        adjustStockWithAuditMovement(productId, adjustment, type, fromBusiness, toBusiness, note, performedBy);
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + productId));
-        return new ProductResponseDTO(
-                product.getId(),
-                product.getSku(),
-                product.getName(),
-                product.getCategory(),
-                product.getPrice(),
-                product.getStockQuantity(),
-                product.getMinStockLevel()
-        );
+        ProductStockView updated = applyStockDelta(productId, adjustment);
+        recordMovement(updated, adjustment, type, fromBusiness, toBusiness, note, performedBy);
+        return ProductService.toResponseDTO(updated);
     }
 
-    @Transactional(readOnly = true)
-    public List<StockMovementResponseDTO> getRecentMovements(int limit) {
-        int safeLimit = Math.max(1, Math.min(limit, 200));
-        return stockMovementRepository.findAllByOrderByCreatedAtDesc(PageRequest.of(0, safeLimit))
+    /**
+     * Applies all lines in one transaction, all-or-nothing. Products are locked up front in id order;
+     * stock updates and movement inserts go out as JDBC batches.
+     */
+    @Transactional
+    public List<StockMovementResponseDTO> createMovements(List<StockMovementCreateDTO> lines, Jwt jwt) {
+        User performedBy = jwt != null ? userService.getOrCreateUserFromJwt(jwt) : null;
+        Set<UUID> productIds = lines.stream()
+                .map(StockMovementCreateDTO::productId)
+                .collect(Collectors.toSet());
+        Map<UUID, Product> products = productRepository.findAllForUpdateByIdIn(productIds)
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<StockMovement> movements = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            StockMovementCreateDTO line = lines.get(i);
+            Product product = products.get(line.productId());
+            if (product == null) {
+                throw new EntityNotFoundException(
+                        "Line " + (i + 1) + ": Product not found with id: " + line.productId());
+            }
+            int newStock = product.getStockQuantity() + line.adjustment();
+            if (newStock < 0) {
+                throw new IllegalArgumentException(
+                        "Line " + (i + 1) + ": Stock adjustment would result in negative stock. Current: "
+                                + product.getStockQuantity() + ", Adjustment: " + line.adjustment());
+            }
+            product.setStockQuantity(newStock);
+            movements.add(toMovement(line, product, newStock, performedBy));
+        }
+        products.values().forEach(product ->
+                eventPublisher.publishEvent(new ProductChangedEvent(ProductService.toResponseDTO(product))));
+
+        List<StockMovementResponseDTO> created = stockMovementRepository.saveAll(movements)
+                .stream()
                 .map(StockMovementService::toResponseDTO)
                 .toList();
+        eventPublisher.publishEvent(new StockMovementsRecordedEvent(created));
+        return created;
+    }
+
+    /**
+     * Newest first, {@code limit} (at most 200) per page. Pass the previous page's
+     * {@code nextCursor} to continue; every page is an index range scan, however deep.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<StockMovementResponseDTO> getRecentMovements(int limit, String cursor) {
+        int safeLimit = Math.max(1, Math.min(limit, 200));
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        Slice<StockMovement> page = after == null
+                ? stockMovementRepository.findAllByOrderByCreatedAtDescIdDesc(PageRequest.of(0, safeLimit))
+                : stockMovementRepository.findPageBefore(after.createdAt(), after.id(), PageRequest.of(0, safeLimit));
+        List<StockMovement> rows = page.getContent();
+        String nextCursor = null;
+        if (page.hasNext()) {
+            StockMovement last = rows.get(rows.size() - 1);
+            nextCursor = new HistoryCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPageDTO<>(rows.stream().map(StockMovementService::toResponseDTO).toList(), nextCursor);
+    }
+
+    /**
+     * Check-and-apply in a single conditional UPDATE, so concurrent movements on the same product
+     * can neither overwrite each other nor drive the stock below zero.
+     */
+    private ProductStockView applyStockDelta(UUID productId, int adjustment) {
+        Optional<ProductStockView> updated = productRepository.applyStockDelta(productId, adjustment);
+        if (updated.isPresent()) {
+            eventPublisher.publishEvent(new ProductChangedEvent(ProductService.toResponseDTO(updated.get())));
+            return updated.get();
+        }
+        Integer current = productRepository.findStockQuantityById(productId)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + productId));
+        throw new IllegalArgumentException(
+                "Stock adjustment would result in negative stock. Current: "
+                        + current + ", Adjustment: " + adjustment);
+    }
+
+    private StockMovementResponseDTO recordMovement(
+            ProductStockView product,
+            int adjustment,
+            StockMovementType type,
+            String fromBusiness,
+            String toBusiness,
+            String note,
+            User performedBy
+    ) {
+        StockMovement movement = StockMovement.builder()
+                .product(productRepository.getReferenceById(product.getId()))
+                .sku(product.getSku())
+                .productName(product.getName())
+                .type(type)
+                .adjustment(adjustment)
+                .resultingStock(product.getStockQuantity())
+                .fromBusiness(blankToNull(fromBusiness))
+                .toBusiness(blankToNull(toBusiness))
+                .note(blankToNull(note))
+                .performedBy(performedBy)
+                .build();
+
+        StockMovementResponseDTO stored = toResponseDTO(stockMovementRepository.save(movement));
+        eventPublisher.publishEvent(new StockMovementsRecordedEvent(List.of(stored)));
+        return stored;
+    }
+
+    static StockMovement toMovement(StockMovementCreateDTO dto, Product product, int resultingStock, User performedBy) {
+        return StockMovement.builder()
+                .product(product)
+                .sku(product.getSku())
+                .productName(product.getName())
+                .type(dto.type())
+                .adjustment(dto.adjustment())
+                .resultingStock(resultingStock)
+                .fromBusiness(blankToNull(dto.fromBusiness()))
+                .toBusiness(blankToNull(dto.toBusiness()))
+                .note(blankToNull(dto.note()))
+                .performedBy(performedBy)
+                .build();
     }
 
-    private static StockMovementResponseDTO toResponseDTO(StockMovement m) {
+    static StockMovementResponseDTO toResponseDTO(StockMovement m) {
         return new StockMovementResponseDTO(
                 m.getId(),
                 m.getProduct().getId(),
@@ -133,7 +237,7 @@ public class StockMovementService {
         );
     }
 
-    private static String blankToNull(String s) {
+    static String blankToNull(String s) {
         if (s == null) return null;
         String t = s.trim();
         return t.isBlank() ? null : t;
@@ -0,0 +1,192 @@
+package com.octavian.server.service;
+
+import com.octavian.server.dto.DailyStockDTO;
+import com.octavian.server.dto.ProductResponseDTO;
+import com.octavian.server.model.StockDailyRollup;
+import com.octavian.server.repository.StockDailyRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Maintains {@code stock_daily_rollups} from {@code stock_movements} and serves stock charts from
+ * it. The rollup job only reads movements past its watermark, in {@code (created_at, id)} order
+ * and in bounded batches, merging each batch into the existing rows; nothing is ever recomputed.
+ * Movements younger than {@code lag} are left for the next run, so that a transaction that stamped
+ * {@code created_at} but has not committed yet is not skipped. Rollups outlive partitions retired
+ * by {@link PartitionMaintenanceService}.
+ */
+@Slf4j
+@Service
+public class StockRollupService {
+
+    private static final String WATERMARK = "stock_daily_rollups";
+    private static final int MAX_RANGE_DAYS = 3660;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StockDailyRollupRepository rollupRepository;
+    private final ProductService productService;
+    private final boolean enabled;
+    private final Duration lag;
+    private final int batchSize;
+
+    public StockRollupService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            StockDailyRollupRepository rollupRepository,
+            ProductService productService,
+            @Value("${inventory.reports.rollup.enabled:true}") boolean enabled,
+            @Value("${inventory.reports.rollup.lag:PT1M}") Duration lag,
+            @Value("${inventory.reports.rollup.batch-size:50000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.rollupRepository = rollupRepository;
+        this.productService = productService;
+        this.enabled = enabled;
+        this.lag = lag;
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reports.rollup.interval-ms:60000}")
+    public void rollUp() {
+        if (!enabled) {
+            return;
+        }
+        Timestamp upTo = Timestamp.from(Instant.now().minus(lag));
+        long total = 0;
+        try {
+            int rolledUp;
+            do {
+                rolledUp = transactionTemplate.execute(status -> rollUpBatch(upTo));
+                total += rolledUp;
+            } while (rolledUp == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Stock rollup failed after {} movements; it resumes from the watermark on the next run", total, e);
+            return;
+        }
+        if (total > 0) {
+            log.info("Rolled up {} stock movements into daily stock", total);
+        }
+    }
+
+    /**
+     * Daily stock of one product for every day from {@code from} to {@code to} inclusive (capped at
+     * today, UTC). Days without movements carry the previous closing stock.
+     */
+    @Transactional(readOnly = true)
+    public List<DailyStockDTO> getDailyStock(UUID productId, LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate requestedLast = to != null ? to : today;
+        LocalDate first = from != null ? from : requestedLast.minusYears(1).plusDays(1);
+        if (first.isAfter(requestedLast)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(first, requestedLast) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+        ProductResponseDTO product = productService.getProductById(productId);
+        LocalDate last = requestedLast.isAfter(today) ? today : requestedLast;
+
+        List<StockDailyRollup> rows = rollupRepository.findByProductIdAndRollupDateBetweenOrderByRollupDate(productId, first, last);
+        // Only days before the first row in range need a level carried in from outside it
+        boolean carriesIn = rows.isEmpty() || rows.get(0).getRollupDate().isAfter(first);
+        int level = carriesIn ? stockBefore(product, first) : 0;
+
+        List<DailyStockDTO> days = new ArrayList<>();
+        int next = 0;
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            if (next < rows.size() && rows.get(next).getRollupDate().equals(day)) {
+                StockDailyRollup row = rows.get(next++);
+                days.add(new DailyStockDTO(day, row.getOpeningStock(), row.getClosingStock(), row.getReceived(),
+                        row.getTransferred(), row.getAdjusted(), row.getMovementCount()));
+                level = row.getClosingStock();
+            } else {
+                days.add(new DailyStockDTO(day, level, level, 0, 0, 0, 0));
+            }
+        }
+        return days;
+    }
+
+    /** Stock at the start of {@code first}, for a product without a rollup on that day. */
+    private int stockBefore(ProductResponseDTO product, LocalDate first) {
+        return rollupRepository.findFirstByProductIdAndRollupDateLessThanOrderByRollupDateDesc(product.id(), first)
+                .map(StockDailyRollup::getClosingStock)
+                .or(() -> rollupRepository.findFirstByProductIdAndRollupDateGreaterThanEqualOrderByRollupDate(product.id(), first)
+                        .map(StockDailyRollup::getOpeningStock))
+                .orElse(product.stockQuantity());
+    }
+
+    /** Rolls up the next batch after the watermark; returns the number of movements included. */
+    private int rollUpBatch(Timestamp upTo) {
+        jdbcTemplate.update("""
+                INSERT INTO report_watermarks (name, last_created_at, last_id) VALUES (?, ?, ?)
+                ON CONFLICT (name) DO NOTHING
+                """, WATERMARK, Timestamp.from(Instant.EPOCH), new UUID(0, 0));
+        // The row lock keeps concurrent runs on other nodes from rolling up the same batch twice
+        Watermark after = jdbcTemplate.queryForObject(
+                "SELECT last_created_at, last_id FROM report_watermarks WHERE name = ? FOR UPDATE",
+                (rs, rowNum) -> new Watermark(rs.getTimestamp(1), rs.getObject(2, UUID.class), 0),
+                WATERMARK);
+        List<Watermark> batchEnd = jdbcTemplate.query("""
+                SELECT created_at, id, count(*) OVER () FROM (
+                    SELECT created_at, id FROM stock_movements
+                    WHERE (created_at, id) > (?, ?) AND created_at < ?
+                    ORDER BY created_at, id
+                    LIMIT ?
+                ) batch
+                ORDER BY created_at DESC, id DESC
+                LIMIT 1
+                """,
+                (rs, rowNum) -> new Watermark(rs.getTimestamp(1), rs.getObject(2, UUID.class), rs.getInt(3)),
+                after.createdAt(), after.id(), upTo, batchSize);
+        if (batchEnd.isEmpty()) {
+            return 0;
+        }
+        Watermark end = batchEnd.get(0);
+
+        // Batches arrive in time order, so an existing row keeps its opening stock and takes the new closing stock.
+        jdbcTemplate.update("""
+                INSERT INTO stock_daily_rollups
+                    (product_id, rollup_date, opening_stock, closing_stock, received, transferred, adjusted, movement_count)
+                SELECT product_id,
+                       (created_at AT TIME ZONE 'UTC')::date,
+                       (array_agg(resulting_stock - adjustment ORDER BY created_at, id))[1],
+                       (array_agg(resulting_stock ORDER BY created_at DESC, id DESC))[1],
+                       coalesce(sum(adjustment) FILTER (WHERE type = 'RECEIVING'), 0),
+                       coalesce(sum(adjustment) FILTER (WHERE type = 'TRANSFER'), 0),
+                       coalesce(sum(adjustment) FILTER (WHERE type = 'ADJUSTMENT'), 0),
+                       count(*)
+                FROM stock_movements
+                WHERE (created_at, id) > (?, ?) AND (created_at, id) <= (?, ?)
+                GROUP BY 1, 2
+                ON CONFLICT (product_id, rollup_date) DO UPDATE SET
+                    closing_stock = EXCLUDED.closing_stock,
+                    received = stock_daily_rollups.received + EXCLUDED.received,
+                    transferred = stock_daily_rollups.transferred + EXCLUDED.transferred,
+                    adjusted = stock_daily_rollups.adjusted + EXCLUDED.adjusted,
+                    movement_count = stock_daily_rollups.movement_count + EXCLUDED.movement_count
+                """,
+                after.createdAt(), after.id(), end.createdAt(), end.id());
+        jdbcTemplate.update("UPDATE report_watermarks SET last_created_at = ?, last_id = ? WHERE name = ?",
+                end.createdAt(), end.id(), WATERMARK);
+        return end.count();
+    }
+
+    private record Watermark(Timestamp createdAt, UUID id, int count) {
+    }
+}
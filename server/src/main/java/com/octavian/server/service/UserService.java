@@ -1,84 +1,184 @@
 package com.octavian.server.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.octavian.server.dto.UserResponseDTO;
 import com.octavian.server.model.User;
 import com.octavian.server.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Resolved users are cached by JWT subject. As long as the token's profile claims match the cached
+ * user, resolving a principal costs no {@code app_users} statements; {@code lastLoginAt} is bumped
+ * at most once per {@code last-login-interval} and written in periodic batches.
+ * <p>
+ * On a miss the upsert joins the caller's transaction, if it has a writable one, so a request never
+ * holds a second connection for it; the user is cached only once that transaction commits. Cached
+ * users are shared between threads and never modified: the last recorded login of each user is kept
+ * beside them.
+ */
 @Service
-@RequiredArgsConstructor
 public class UserService {
 
     private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate upsertTransaction;
+    private final TransactionTemplate ownTransaction;
+    private final Duration lastLoginInterval;
+    private final Cache<String, User> principals;
+    private final Cache<UUID, Instant> lastLogins;
+    private final Map<UUID, Instant> pendingLastLogins = new ConcurrentHashMap<>();
+
+    public UserService(
+            UserRepository userRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.users.cache-size:10000}") long cacheSize,
+            @Value("${inventory.users.cache-ttl:PT10M}") Duration cacheTtl,
+            @Value("${inventory.users.last-login-interval:PT5M}") Duration lastLoginInterval) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.upsertTransaction = new TransactionTemplate(transactionManager);
+        // Only for callers inside a read-only transaction, which the upsert cannot join
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.lastLoginInterval = lastLoginInterval;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+        this.lastLogins = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
 
     /** Returns the app User entity for server-side use (e.g. audit log). */
-    @Transactional(readOnly = false)
     public User getOrCreateUserFromJwt(Jwt jwt) {
-        String authUserId = jwt.getSubject();
-        String email = jwt.getClaimAsString("email");
-        String name = jwt.getClaimAsString("name");
-        String picture = jwt.getClaimAsString("picture");
-        if ((name == null || name.isBlank()) || (picture == null || picture.isBlank())) {
-            Map<String, Object> userMetadata = jwt.getClaim("user_metadata");
-            if (userMetadata != null) {
-                if (name == null || name.isBlank()) {
-                    Object fn = userMetadata.get("full_name");
-                    if (fn != null) name = fn.toString();
-                }
-                if (picture == null || picture.isBlank()) {
-                    Object av = userMetadata.get("avatar_url");
-                    if (av != null) picture = av.toString();
+        Profile profile = Profile.from(jwt);
+        User cached = principals.getIfPresent(profile.authUserId());
+        if (cached != null && profile.matches(cached)) {
+            touchLastLogin(cached);
+            return cached;
+        }
+        boolean joins = TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        User user = (joins ? upsertTransaction : ownTransaction).execute(status -> upsert(profile));
+        if (joins) {
+            // A cached user must refer to a committed row
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache(profile, user);
                 }
+            });
+        } else {
+            cache(profile, user);
+        }
+        return user;
+    }
+
+    public UserResponseDTO getOrCreateFromJwt(Jwt jwt) {
+        User user = getOrCreateUserFromJwt(jwt);
+        Instant lastLogin = lastLogins.getIfPresent(user.getId());
+        return toResponseDTO(user, lastLogin != null ? lastLogin : user.getLastLoginAt());
+    }
+
+    @Transactional(readOnly = true)
+    public List<UserResponseDTO> getAllUsers() {
+        return userRepository.findAll()
+                .stream()
+                .map(UserService::toResponseDTO)
+                .toList();
+    }
+
+    /**
+     * Writes the throttled {@code lastLoginAt} bumps collected since the last run in one JDBC batch.
+     */
+    @Scheduled(fixedDelayString = "${inventory.users.last-login-flush-ms:60000}")
+    @PreDestroy
+    public void flushLastLogins() {
+        List<Object[]> updates = new ArrayList<>();
+        for (UUID id : pendingLastLogins.keySet()) {
+            Instant at = pendingLastLogins.remove(id);
+            if (at != null) {
+                Timestamp ts = Timestamp.from(at);
+                updates.add(new Object[]{ts, id, ts});
             }
         }
-        final String displayName = name;
-        final String avatarUrl = picture;
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE app_users SET last_login_at = ? WHERE id = ? AND last_login_at < ?", updates);
+        }
+    }
+
+    private void cache(Profile profile, User user) {
+        lastLogins.put(user.getId(), user.getLastLoginAt());
+        principals.put(profile.authUserId(), user);
+    }
 
-        User user = userRepository.findByAuthUserId(authUserId)
+    private void touchLastLogin(User user) {
+        Instant now = Instant.now();
+        Instant recorded = lastLogins.asMap().compute(user.getId(), (id, last) -> {
+            Instant since = last != null ? last : user.getLastLoginAt();
+            boolean due = since == null || Duration.between(since, now).compareTo(lastLoginInterval) >= 0;
+            return due ? now : since;
+        });
+        if (recorded == now) {
+            pendingLastLogins.merge(user.getId(), now, (a, b) -> a.isAfter(b) ? a : b);
+        }
+    }
+
+    private User upsert(Profile profile) {
+        User user = userRepository.findByAuthUserId(profile.authUserId())
                 .map(existing -> {
-                    existing.setEmail(email != null ? email : existing.getEmail());
-                    if (displayName != null && !displayName.isBlank()) {
-                        existing.setDisplayName(displayName);
+                    existing.setEmail(profile.email() != null ? profile.email() : existing.getEmail());
+                    if (profile.displayName() != null && !profile.displayName().isBlank()) {
+                        existing.setDisplayName(profile.displayName());
                     }
-                    if (avatarUrl != null && !avatarUrl.isBlank()) {
-                        existing.setAvatarUrl(avatarUrl);
+                    if (profile.avatarUrl() != null && !profile.avatarUrl().isBlank()) {
+                        existing.setAvatarUrl(profile.avatarUrl());
                     }
                     existing.setLastLoginAt(Instant.now());
                     return existing;
                 })
                 .orElseGet(() -> User.builder()
-                        .authUserId(authUserId)
-                        .email(email != null ? email : authUserId)
-                        .displayName(displayName)
-                        .avatarUrl(avatarUrl)
+                        .authUserId(profile.authUserId())
+                        .email(profile.email() != null ? profile.email() : profile.authUserId())
+                        .displayName(profile.displayName())
+                        .avatarUrl(profile.avatarUrl())
                         .lastLoginAt(Instant.now())
                         .build());
 
         return userRepository.save(user);
     }
 
-    @Transactional
-    public UserResponseDTO getOrCreateFromJwt(Jwt jwt) {
-        User user = getOrCreateUserFromJwt(jwt);
-        return toResponseDTO(user);
-    }
-
-    @Transactional(readOnly = true)
-    public List<UserResponseDTO> getAllUsers() {
-        return userRepository.findAll()
-                .stream()
-                .map(UserService::toResponseDTO)
-                .toList();
+    private static UserResponseDTO toResponseDTO(User u) {
+        return toResponseDTO(u, u.getLastLoginAt());
     }
 
-    private static UserResponseDTO toResponseDTO(User u) {
+    private static UserResponseDTO toResponseDTO(User u, Instant lastLoginAt) {
         return new UserResponseDTO(
                 u.getId(),
                 u.getAuthUserId(),
@@ -86,8 +186,37 @@ public class UserService {
                 u.getDisplayName(),
                 u.getAvatarUrl(),
                 u.getCreatedAt(),
-                u.getLastLoginAt()
+                lastLoginAt
         );
     }
-}
 
+    /** Profile claims of a token, with the Supabase user_metadata fallbacks applied. */
+    private record Profile(String authUserId, String email, String displayName, String avatarUrl) {
+
+        static Profile from(Jwt jwt) {
+            String name = jwt.getClaimAsString("name");
+            String picture = jwt.getClaimAsString("picture");
+            if ((name == null || name.isBlank()) || (picture == null || picture.isBlank())) {
+                Map<String, Object> userMetadata = jwt.getClaim("user_metadata");
+                if (userMetadata != null) {
+                    if (name == null || name.isBlank()) {
+                        Object fn = userMetadata.get("full_name");
+                        if (fn != null) name = fn.toString();
+                    }
+                    if (picture == null || picture.isBlank()) {
+                        Object av = userMetadata.get("avatar_url");
+                        if (av != null) picture = av.toString();
+                    }
+                }
+            }
+            return new Profile(jwt.getSubject(), jwt.getClaimAsString("email"), name, picture);
+        }
+
+        /** True when upserting this profile would not change the stored user. */
+        boolean matches(User user) {
+            return (email == null || email.equals(user.getEmail()))
+                    && (displayName == null || displayName.isBlank() || displayName.equals(user.getDisplayName()))
+                    && (avatarUrl == null || avatarUrl.isBlank() || Objects.equals(avatarUrl, user.getAvatarUrl()));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.octavian.server.benchmark;
+
+import com.octavian.server.dto.DailyStockDTO;
+import com.octavian.server.dto.ProductCreateDTO;
+import com.octavian.server.model.UuidV7Generator;
+import com.octavian.server.service.ProductService;
+import com.octavian.server.service.StockRollupService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seeds a year of movements for one product next to a year of rollups for {@value #OTHER_PRODUCTS}
+ * other products, rolls the movements up, checks the result against an aggregate over the raw
+ * movements and prints how long a one-year chart takes. Rolling up back-dated movements means
+ * starting the watermark over, so the test runs in its own {@value #SCHEMA} schema and never
+ * touches the real rollups or watermark. Needs a real database, so it only runs with
+ * {@code -Dstress=true}.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.schema=" + DailyStockRollupBenchmarkTest.SCHEMA,
+        "spring.jpa.properties.hibernate.default_schema=" + DailyStockRollupBenchmarkTest.SCHEMA,
+        "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true"
+})
+@EnabledIfSystemProperty(named = "stress", matches = "true")
+class DailyStockRollupBenchmarkTest {
+
+    static final String SCHEMA = "rollup_benchmark";
+    private static final int DAYS = 365;
+    private static final int MOVEMENTS_PER_DAY = 20;
+    private static final int OTHER_PRODUCTS = 10_000;
+    private static final int REPEATS = 200;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StockRollupService stockRollupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID productId;
+
+    @BeforeEach
+    void startOver() {
+        assertThat(jdbcTemplate.queryForObject("SELECT current_schema()", String.class)).isEqualTo(SCHEMA);
+        jdbcTemplate.execute("TRUNCATE stock_movements, stock_daily_rollups, report_watermarks");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("TRUNCATE stock_movements, stock_daily_rollups, report_watermarks");
+        if (productId != null) {
+            jdbcTemplate.update("DELETE FROM products WHERE id = ?", productId);
+        }
+    }
+
+    @Test
+    void yearChartComesFromTheRollups() {
+        String sku = "ROLLUP-" + UUID.randomUUID().toString().substring(0, 8);
+        productId = productService.createProduct(new ProductCreateDTO(sku, "Rollup product", "benchmark", BigDecimal.ONE, 0, 0)).id();
+        // The year up to yesterday, so no movement is still inside the rollup lag
+        LocalDate last = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        LocalDate first = last.minusDays(DAYS - 1);
+        seedMovements(sku, first);
+        jdbcTemplate.update("""
+                INSERT INTO stock_daily_rollups
+                    (product_id, rollup_date, opening_stock, closing_stock, received, transferred, adjusted, movement_count)
+                SELECT p.id, d::date, 10, 12, 2, 0, 0, 1
+                FROM (SELECT gen_random_uuid() AS id FROM generate_series(1, ?)) p,
+                     generate_series(?::date, ?::date, interval '1 day') d
+                """, OTHER_PRODUCTS, first, last);
+
+        long start = System.nanoTime();
+        stockRollupService.rollUp();
+        double rollUpMs = (System.nanoTime() - start) / 1e6;
+        jdbcTemplate.execute("ANALYZE stock_daily_rollups");
+
+        List<DailyStockDTO> chart = stockRollupService.getDailyStock(productId, first, last);
+        assertThat(chart).hasSize(DAYS);
+        List<Map<String, Object>> expected = jdbcTemplate.queryForList("""
+                SELECT (created_at AT TIME ZONE 'UTC')::date AS day, count(*) AS movements, sum(adjustment) AS net
+                FROM stock_movements WHERE product_id = ? GROUP BY 1 ORDER BY 1
+                """, productId);
+        assertThat(expected).hasSize(DAYS);
+        for (int i = 0; i < DAYS; i++) {
+            DailyStockDTO day = chart.get(i);
+            assertThat(day.movementCount()).isEqualTo(((Number) expected.get(i).get("movements")).intValue());
+            assertThat(day.closingStock() - day.openingStock()).isEqualTo(((Number) expected.get(i).get("net")).intValue());
+            assertThat(day.received() + day.transferred() + day.adjusted()).isEqualTo(((Number) expected.get(i).get("net")).intValue());
+            if (i > 0) {
+                assertThat(day.openingStock()).isEqualTo(chart.get(i - 1).closingStock());
+            }
+        }
+
+        for (int i = 0; i < REPEATS; i++) {
+            stockRollupService.getDailyStock(productId, first, last);
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < REPEATS; i++) {
+            stockRollupService.getDailyStock(productId, first, last);
+        }
+        System.out.printf("rolled up %d movements in %.0f ms; %d-day chart with %d products' rollups: %.2f ms%n",
+                DAYS * MOVEMENTS_PER_DAY, rollUpMs, DAYS, OTHER_PRODUCTS + 1, (System.nanoTime() - start) / 1e6 / REPEATS);
+    }
+
+    private void seedMovements(String sku, LocalDate first) {
+        String[] types = {"RECEIVING", "TRANSFER", "ADJUSTMENT"};
+        Random random = new Random(7);
+        Instant firstInstant = first.atStartOfDay(ZoneOffset.UTC).toInstant();
+        List<Object[]> rows = new ArrayList<>(DAYS * MOVEMENTS_PER_DAY);
+        int stock = 0;
+        for (int day = 0; day < DAYS; day++) {
+            for (int i = 0; i < MOVEMENTS_PER_DAY; i++) {
+                int adjustment = stock < 50 ? random.nextInt(1, 30) : random.nextInt(-40, 30);
+                stock += adjustment;
+                Instant at = firstInstant.plus(day, ChronoUnit.DAYS).plus(i, ChronoUnit.HOURS);
+                rows.add(new Object[]{UuidV7Generator.next(), productId, sku, types[random.nextInt(types.length)],
+                        adjustment, stock, Timestamp.from(at)});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO stock_movements (id, product_id, sku, product_name, type, adjustment, resulting_stock, created_at) "
+                + "VALUES (?, ?, ?, 'Rollup product', ?, ?, ?, ?)", rows);
+    }
+}
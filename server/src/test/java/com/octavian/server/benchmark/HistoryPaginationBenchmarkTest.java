@@ -0,0 +1,122 @@
+package com.octavian.server.benchmark;
+
+import com.octavian.server.dto.CursorPageDTO;
+import com.octavian.server.dto.ProductCreateDTO;
+import com.octavian.server.dto.StockMovementResponseDTO;
+import com.octavian.server.model.UuidV7Generator;
+import com.octavian.server.repository.StockMovementRepository;
+import com.octavian.server.service.ProductService;
+import com.octavian.server.service.StockMovementService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seeds enough stock movements for {@value #PAGES} pages of {@value #PAGE_SIZE}, walks them with the
+ * cursor and prints the latency of the first and the last page next to an OFFSET query for the
+ * same last page. Needs a real database, so it only runs with {@code -Dstress=true}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "stress", matches = "true")
+class HistoryPaginationBenchmarkTest {
+
+    private static final int PAGES = 10_000;
+    private static final int PAGE_SIZE = 50;
+    private static final int BATCH_SIZE = 10_000;
+    private static final int REPEATS = 20;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StockMovementService stockMovementService;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID productId;
+
+    @AfterEach
+    void cleanUp() {
+        if (productId != null) {
+            jdbcTemplate.update("DELETE FROM stock_movements WHERE product_id = ?", productId);
+            jdbcTemplate.update("DELETE FROM products WHERE id = ?", productId);
+        }
+    }
+
+    @Test
+    void deepPagesCostTheSameAsTheFirst() {
+        String sku = "PAGING-" + UUID.randomUUID().toString().substring(0, 8);
+        productId = productService.createProduct(new ProductCreateDTO(sku, "Paging product", "benchmark", BigDecimal.ONE, 0, 0)).id();
+        seed(sku, PAGES * PAGE_SIZE);
+        jdbcTemplate.execute("ANALYZE stock_movements");
+
+        CursorPageDTO<StockMovementResponseDTO> page = stockMovementService.getRecentMovements(PAGE_SIZE, null);
+        String firstCursor = null;
+        String lastCursor = null;
+        for (int i = 1; i < PAGES; i++) {
+            if (i == 1) {
+                firstCursor = page.nextCursor();
+            }
+            lastCursor = page.nextCursor();
+            page = stockMovementService.getRecentMovements(PAGE_SIZE, lastCursor);
+        }
+        assertThat(page.items()).hasSize(PAGE_SIZE);
+
+        String second = firstCursor;
+        String deepest = lastCursor;
+        double firstMs = time(() -> stockMovementService.getRecentMovements(PAGE_SIZE, null));
+        double secondMs = time(() -> stockMovementService.getRecentMovements(PAGE_SIZE, second));
+        double deepMs = time(() -> stockMovementService.getRecentMovements(PAGE_SIZE, deepest));
+        double offsetMs = time(() -> transactionTemplate.execute(status ->
+                stockMovementRepository.findAllByOrderByCreatedAtDescIdDesc(PageRequest.of(PAGES - 1, PAGE_SIZE)).getContent()));
+
+        System.out.printf("page 1: %.2f ms, page 2: %.2f ms, page %d via cursor: %.2f ms, page %d via OFFSET: %.2f ms%n",
+                firstMs, secondMs, PAGES, deepMs, PAGES, offsetMs);
+    }
+
+    private void seed(String sku, int rows) {
+        Instant newest = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        String sql = "INSERT INTO stock_movements (id, product_id, sku, product_name, type, adjustment, resulting_stock, created_at) "
+                + "VALUES (?, ?, ?, 'Paging product', 'ADJUSTMENT', 1, 1, ?)";
+        for (int done = 0; done < rows; done += BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = done; i < Math.min(done + BATCH_SIZE, rows); i++) {
+                // One movement per microsecond, newest first, all within the current partition
+                batch.add(new Object[]{UuidV7Generator.next(), productId, sku, Timestamp.from(newest.minus(i, ChronoUnit.MICROS))});
+            }
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+
+    private static double time(Supplier<?> query) {
+        query.get();
+        long start = System.nanoTime();
+        for (int i = 0; i < REPEATS; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - start) / 1e6 / REPEATS;
+    }
+}
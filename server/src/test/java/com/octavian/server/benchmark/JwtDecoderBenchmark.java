@@ -0,0 +1,122 @@
+package com.octavian.server.benchmark;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.octavian.server.config.CachingJwtDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of decoding the same bearer token with the plain {@link NimbusJwtDecoder} (signature check
+ * on every call) versus {@link CachingJwtDecoder}. Run with:
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     "-Dexec.args=-cp %classpath com.octavian.server.benchmark.JwtDecoderBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtDecoderBenchmark {
+
+    @Param({"RS256", "ES256"})
+    public String algorithm;
+
+    private String token;
+    private JwtDecoder nimbus;
+    private JwtDecoder cached;
+
+    @Setup
+    public void setUp() throws Exception {
+        JWK key;
+        JWSSigner signer;
+        if ("ES256".equals(algorithm)) {
+            ECKey ecKey = new ECKeyGenerator(Curve.P_256).keyID("bench").generate();
+            key = ecKey;
+            signer = new ECDSASigner(ecKey);
+        } else {
+            RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("bench").generate();
+            key = rsaKey;
+            signer = new RSASSASigner(rsaKey);
+        }
+
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("benchmark-user")
+                .issuer("https://example.supabase.co/auth/v1")
+                .issueTime(new Date())
+                .expirationTime(Date.from(Instant.now().plus(Duration.ofHours(1))))
+                .claim("email", "bench@example.com")
+                .claim("user_metadata", Map.of("full_name", "Bench User"))
+                .build();
+        JWSAlgorithm jwsAlgorithm = JWSAlgorithm.parse(algorithm);
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(jwsAlgorithm).keyID("bench").build(), claims);
+        jwt.sign(signer);
+        token = jwt.serialize();
+
+        // Same shape as SecurityConfig: key selected from a JWK set, default validators.
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(
+                jwsAlgorithm, new ImmutableJWKSet<>(new JWKSet(key.toPublicJWK()))));
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(JwtValidators.createDefault());
+        nimbus = decoder;
+        cached = new CachingJwtDecoder(decoder, 10_000, Duration.ofMinutes(5));
+    }
+
+    @Benchmark
+    public Jwt cold() {
+        return nimbus.decode(token);
+    }
+
+    @Benchmark
+    public Jwt cached() {
+        return cached.decode(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtDecoderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,90 @@
+package com.octavian.server.benchmark;
+
+import com.octavian.server.dto.ProductResponseDTO;
+import com.octavian.server.model.UuidV7Generator;
+import com.octavian.server.service.ProductSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autocomplete latency of {@link ProductSearchIndex} over a synthetic catalog of 200k products:
+ * a SKU prefix as typed by a scanner, a short and a two-word name prefix. Run with:
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     "-Dexec.args=-cp %classpath com.octavian.server.benchmark.ProductSearchBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProductSearchBenchmark {
+
+    private static final String[] ADJECTIVES = {
+            "blue", "red", "green", "black", "white", "steel", "oak", "compact", "wireless", "premium",
+            "organic", "classic", "heavy", "mini", "smart", "thermal", "matte", "glass", "bamboo", "carbon"
+    };
+    private static final String[] NOUNS = {
+            "widget", "bottle", "lamp", "chair", "desk", "cable", "charger", "mug", "notebook", "keyboard",
+            "monitor", "speaker", "backpack", "jacket", "kettle", "router", "headset", "stapler", "tray", "drill"
+    };
+    private static final String[] CATEGORIES = {
+            "Electronics", "Office", "Beverages", "Apparel", "Lighting", "Furniture", "Kitchen", "Tools"
+    };
+
+    @Param({"200000"})
+    public int products;
+
+    @Param({"SKU-0123", "wid", "blue wid"})
+    public String query;
+
+    private ProductSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<ProductResponseDTO> catalog = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            UUID id = UuidV7Generator.next();
+            String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                    + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                    + NOUNS[random.nextInt(NOUNS.length)] + " " + random.nextInt(1000);
+            catalog.add(new ProductResponseDTO(id, "SKU-%06d".formatted(i), name,
+                    CATEGORIES[random.nextInt(CATEGORIES.length)], BigDecimal.TEN, random.nextInt(100), 5));
+        }
+        index = new ProductSearchIndex(null, 20_000);
+        index.load(catalog);
+    }
+
+    @Benchmark
+    public List<UUID> search() {
+        return index.search(query, 10);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,141 @@
+package com.octavian.server.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.octavian.server.dto.ProductResponseDTO;
+import com.octavian.server.dto.StockMovementResponseDTO;
+import com.octavian.server.model.StockMovementType;
+import com.octavian.server.model.UuidV7Generator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization cost of a page of products or movements in each response format the API offers:
+ * JSON, JSON gzip-compressed as the server does it, Smile and CBOR. The payload size of every
+ * combination is printed during setup; time per page is measured, and allocation per page comes
+ * from the GC profiler ({@code gc.alloc.rate.norm}). Run with:
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     "-Dexec.args=-cp %classpath com.octavian.server.benchmark.ResponseFormatBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ResponseFormatBenchmark {
+
+    private static final String[] CATEGORIES = {"Electronics", "Office", "Beverages", "Apparel", "Tools", null};
+
+    @Param({"json", "json-gzip", "smile", "cbor"})
+    public String format;
+
+    @Param({"products", "movements"})
+    public String listing;
+
+    @Param({"1000"})
+    public int rows;
+
+    private ObjectMapper mapper;
+    private boolean gzip;
+    private List<?> page;
+
+    @Setup
+    public void setUp() throws IOException {
+        gzip = format.equals("json-gzip");
+        mapper = mapper(format);
+        page = listing.equals("products") ? products(rows) : movements(rows);
+        System.out.printf("%n%s as %s: %d bytes for %d rows%n", listing, format, serialize().length, rows);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        if (!gzip) {
+            return mapper.writeValueAsBytes(page);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            mapper.writeValue(out, page);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Configured like the application's mappers: Boot's builder with dates as ISO-8601 strings. */
+    private static ObjectMapper mapper(String format) {
+        JsonFactory factory = switch (format) {
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> new JsonFactory();
+        };
+        return Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    private static List<ProductResponseDTO> products(int rows) {
+        Random random = new Random(42);
+        List<ProductResponseDTO> products = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            products.add(new ProductResponseDTO(UuidV7Generator.next(), "SKU-%06d".formatted(i),
+                    "Product " + random.nextInt(100_000), CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    BigDecimal.valueOf(random.nextInt(100_000), 2), random.nextInt(500), random.nextInt(20)));
+        }
+        return products;
+    }
+
+    private static List<StockMovementResponseDTO> movements(int rows) {
+        Random random = new Random(42);
+        StockMovementType[] types = StockMovementType.values();
+        UUID user = UuidV7Generator.next();
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+        List<StockMovementResponseDTO> movements = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            boolean transfer = random.nextInt(4) == 0;
+            movements.add(new StockMovementResponseDTO(UuidV7Generator.next(), UuidV7Generator.next(),
+                    "SKU-%06d".formatted(random.nextInt(10_000)), "Product " + random.nextInt(100_000),
+                    types[random.nextInt(types.length)], random.nextInt(-20, 50), random.nextInt(1000),
+                    transfer ? "Main warehouse" : null, transfer ? "Store " + random.nextInt(40) : null,
+                    random.nextInt(5) == 0 ? "Counted during cycle count" : null,
+                    user, "operator@example.com", start.plusSeconds(i * 37L)));
+        }
+        return movements;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ResponseFormatBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
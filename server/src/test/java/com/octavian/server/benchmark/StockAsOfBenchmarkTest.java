@@ -0,0 +1,161 @@
+package com.octavian.server.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.octavian.server.dto.StockAsOfDTO;
+import com.octavian.server.event.HistoryRetiredEvent;
+import com.octavian.server.exception.HistoryUnavailableException;
+import com.octavian.server.service.StockCheckpointService;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Seeds {@value #PRODUCTS} products that each received one unit {@value #MOVEMENTS} times over the
+ * last 30 days and once more after the checkpoint, so the stock as of any instant is 100 plus the
+ * number of movements before it. Checks single and bulk answers before, between and after the
+ * movements and around retired history, then prints their latency. Needs a real database, so it
+ * only runs with {@code -Dstress=true}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "stress", matches = "true")
+class StockAsOfBenchmarkTest {
+
+    private static final int PRODUCTS = 20_000;
+    private static final int MOVEMENTS = 5;
+    private static final int INITIAL_STOCK = 100;
+    private static final int REPEATS = 200;
+
+    @Autowired
+    private StockCheckpointService stockCheckpointService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final String prefix = "ASOF-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+
+    @AfterEach
+    void cleanUp() {
+        String products = "SELECT id FROM products WHERE sku LIKE '" + prefix + "%'";
+        jdbcTemplate.update("DELETE FROM stock_checkpoints WHERE product_id IN (" + products + ")");
+        jdbcTemplate.update("DELETE FROM stock_movements WHERE product_id IN (" + products + ")");
+        jdbcTemplate.update("DELETE FROM products WHERE sku LIKE ?", prefix + "%");
+    }
+
+    @Test
+    void answersFromCheckpointsAndReplay() throws Exception {
+        Instant now = Instant.now();
+        jdbcTemplate.update("""
+                INSERT INTO products (id, sku, name, category, price, stock_quantity, min_stock_level)
+                SELECT gen_random_uuid(), ? || g, 'As-of product', 'benchmark', 1, ?, 0
+                FROM generate_series(1, ?) g
+                """, prefix, INITIAL_STOCK + MOVEMENTS + 1, PRODUCTS);
+        // Movement k lands (30 - 5k) days ago with resulting stock 100 + k
+        jdbcTemplate.update("""
+                INSERT INTO stock_movements (id, product_id, sku, product_name, type, adjustment, resulting_stock, created_at)
+                SELECT gen_random_uuid(), p.id, p.sku, p.name, 'RECEIVING', 1, ? + k, ?::timestamptz - (30 - 5 * k) * interval '1 day'
+                FROM products p, generate_series(1, ?) k
+                WHERE p.sku LIKE ?
+                """, INITIAL_STOCK, Timestamp.from(now), MOVEMENTS, prefix + "%");
+
+        // Cover the whole ledger again; checkpoints already written stay valid
+        jdbcTemplate.update("DELETE FROM report_watermarks WHERE name = 'stock_checkpoints'");
+        stockCheckpointService.checkpoint();
+        jdbcTemplate.update("""
+                INSERT INTO stock_movements (id, product_id, sku, product_name, type, adjustment, resulting_stock, created_at)
+                SELECT gen_random_uuid(), id, sku, name, 'RECEIVING', 1, ?, ?
+                FROM products WHERE sku LIKE ?
+                """, INITIAL_STOCK + MOVEMENTS + 1, Timestamp.from(now.minus(1, ChronoUnit.MINUTES)), prefix + "%");
+        jdbcTemplate.execute("ANALYZE stock_movements");
+        jdbcTemplate.execute("ANALYZE stock_checkpoints");
+
+        UUID productId = jdbcTemplate.queryForObject("SELECT id FROM products WHERE sku = ?", UUID.class, prefix + 1);
+        Instant beforeAll = now.minus(31, ChronoUnit.DAYS);
+        Instant afterTwo = now.minus(18, ChronoUnit.DAYS);
+        Instant afterCheckpoint = now.minus(2, ChronoUnit.MINUTES);
+        assertThat(stockCheckpointService.getStockAsOf(productId, beforeAll).stockQuantity()).isEqualTo(INITIAL_STOCK);
+        assertThat(stockCheckpointService.getStockAsOf(productId, afterTwo).stockQuantity()).isEqualTo(INITIAL_STOCK + 2);
+        assertThat(stockCheckpointService.getStockAsOf(productId, afterCheckpoint).stockQuantity()).isEqualTo(INITIAL_STOCK + MOVEMENTS);
+        assertThat(stockCheckpointService.getStockAsOf(productId, now).stockQuantity()).isEqualTo(INITIAL_STOCK + MOVEMENTS + 1);
+
+        // Movements older than the checkpoint may be retired with their partition
+        jdbcTemplate.update("DELETE FROM stock_movements WHERE product_id = ? AND created_at < ?",
+                productId, Timestamp.from(afterCheckpoint));
+        assertThat(stockCheckpointService.getStockAsOf(productId, afterCheckpoint).stockQuantity()).isEqualTo(INITIAL_STOCK + MOVEMENTS);
+
+        List<StockAsOfDTO> bulk = exportAll(afterTwo).stream().filter(row -> row.sku().startsWith(prefix)).toList();
+        assertThat(bulk).hasSize(PRODUCTS);
+        assertThat(bulk).filteredOn(row -> !row.productId().equals(productId))
+                .allSatisfy(row -> assertThat(row.stockQuantity()).isEqualTo(INITIAL_STOCK + 2));
+
+        // Rolled back, so the shared retirement watermark is left alone
+        UUID retiredId = jdbcTemplate.queryForObject("SELECT id FROM products WHERE sku = ?", UUID.class, prefix + 2);
+        UUID newId = jdbcTemplate.queryForObject("SELECT id FROM products WHERE sku = ?", UUID.class, prefix + 3);
+        UUID untouchedId = jdbcTemplate.queryForObject("SELECT id FROM products WHERE sku = ?", UUID.class, prefix + 4);
+        Instant retiredBefore = now.minus(19, ChronoUnit.DAYS);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM stock_movements WHERE product_id = ? AND created_at < ?",
+                    retiredId, Timestamp.from(retiredBefore));
+            stockCheckpointService.onHistoryRetired(new HistoryRetiredEvent("stock_movements", retiredBefore));
+            jdbcTemplate.update("UPDATE products SET created_at = ? WHERE id = ?",
+                    Timestamp.from(now.minus(10, ChronoUnit.DAYS)), newId);
+
+            assertThat(stockCheckpointService.getStockAsOf(retiredId, afterTwo).stockQuantity()).isEqualTo(INITIAL_STOCK + 2);
+            assertThatThrownBy(() -> stockCheckpointService.getStockAsOf(retiredId, now.minus(21, ChronoUnit.DAYS)))
+                    .isInstanceOf(HistoryUnavailableException.class);
+            assertThat(stockCheckpointService.getStockAsOf(untouchedId, now.minus(21, ChronoUnit.DAYS)).stockQuantity())
+                    .isEqualTo(INITIAL_STOCK + 1);
+            assertThatThrownBy(() -> stockCheckpointService.getStockAsOf(newId, afterTwo))
+                    .isInstanceOf(EntityNotFoundException.class);
+            status.setRollbackOnly();
+        });
+
+        for (int i = 0; i < REPEATS; i++) {
+            stockCheckpointService.getStockAsOf(productId, now);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < REPEATS; i++) {
+            stockCheckpointService.getStockAsOf(productId, now);
+        }
+        double singleMs = (System.nanoTime() - start) / 1e6 / REPEATS;
+        start = System.nanoTime();
+        int rows = exportAll(now).size();
+        double bulkMs = (System.nanoTime() - start) / 1e6;
+        System.out.printf("stock as of: single product %.2f ms, all %d products %.0f ms%n", singleMs, rows, bulkMs);
+    }
+
+    private List<StockAsOfDTO> exportAll(Instant asOf) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        stockCheckpointService.exportStockAsOf(asOf, out);
+        return out.toString(StandardCharsets.UTF_8).lines()
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, StockAsOfDTO.class);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,61 @@
+package com.octavian.server.benchmark;
+
+import com.octavian.server.model.UuidV7Generator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Inserts the same number of rows keyed by random (v4) and time-ordered (v7) UUIDs into scratch
+ * tables and prints insert throughput and primary-key index size for each. Needs a real database
+ * and takes minutes, so it only runs with {@code -Dstress=true}; the row count defaults to two
+ * million and can be changed with {@code -Dbenchmark.rows}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "stress", matches = "true")
+class UuidPrimaryKeyBenchmarkTest {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void compareRandomAndTimeOrderedKeys() {
+        int rows = Integer.getInteger("benchmark.rows", 2_000_000);
+        run("uuid_bench_v4", rows, UUID::randomUUID);
+        run("uuid_bench_v7", rows, UuidV7Generator::next);
+    }
+
+    private void run(String table, int rows, Supplier<UUID> ids) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        jdbcTemplate.execute("CREATE TABLE " + table + " (id uuid PRIMARY KEY, created_at timestamp NOT NULL DEFAULT now(), payload text)");
+        try {
+            String sql = "INSERT INTO " + table + " (id, payload) VALUES (?, ?)";
+            long start = System.nanoTime();
+            for (int done = 0; done < rows; done += BATCH_SIZE) {
+                List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+                for (int i = 0; i < Math.min(BATCH_SIZE, rows - done); i++) {
+                    batch.add(new Object[]{ids.get(), "row " + (done + i)});
+                }
+                jdbcTemplate.batchUpdate(sql, batch);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            jdbcTemplate.execute("VACUUM ANALYZE " + table);
+            Long indexBytes = jdbcTemplate.queryForObject("SELECT pg_relation_size(?::regclass)", Long.class, table + "_pkey");
+            Long tableBytes = jdbcTemplate.queryForObject("SELECT pg_relation_size(?::regclass)", Long.class, table);
+            System.out.printf("%s: %,d rows in %.1fs (%,.0f rows/s), pkey %,d KiB, heap %,d KiB%n",
+                    table, rows, seconds, rows / seconds, indexBytes / 1024, tableBytes / 1024);
+        } finally {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.octavian.server.benchmark;
+
+import com.octavian.server.ServerApplication;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the application once on platform threads and once in virtual-thread mode, and drives each
+ * with the same closed-loop load: {@value #CLIENTS} concurrent clients, {@value #WRITE_PERCENT}% of
+ * requests recording a stock movement on one of {@value #PRODUCTS} products and the rest reading the
+ * first page of recent movements. After a warm-up, throughput and p50/p99 latency over
+ * {@value #MEASURE_SECONDS}s are printed per mode, with how often the database bulkhead made callers
+ * wait and how many pinned virtual threads were seen. Needs a real database, so it only runs with
+ * {@code -Dstress=true}.
+ */
+@EnabledIfSystemProperty(named = "stress", matches = "true")
+class VirtualThreadLoadBenchmarkTest {
+
+    private static final int CLIENTS = 400;
+    private static final int PRODUCTS = 50;
+    private static final int WRITE_PERCENT = 20;
+    private static final int WARMUP_SECONDS = 10;
+    private static final int MEASURE_SECONDS = 20;
+    private static final UUID SUBJECT = UUID.randomUUID();
+
+    private final String prefix = "VT-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        if (jdbcTemplate == null) {
+            return;
+        }
+        String products = "SELECT id FROM products WHERE sku LIKE '" + prefix + "%'";
+        String user = "SELECT id FROM app_users WHERE auth_user_id = '" + SUBJECT + "'";
+        jdbcTemplate.update("DELETE FROM stock_movements WHERE product_id IN (" + products + ")");
+        jdbcTemplate.update("DELETE FROM audit_logs WHERE user_id IN (" + user + ")");
+        jdbcTemplate.update("DELETE FROM products WHERE sku LIKE ?", prefix + "%");
+        jdbcTemplate.update("DELETE FROM app_users WHERE auth_user_id = ?", SUBJECT.toString());
+    }
+
+    @Test
+    void comparesPlatformAndVirtualThreads() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+        System.out.println(platform);
+        System.out.println(virtual);
+        assertThat(platform.requests()).isPositive();
+        assertThat(virtual.requests()).isPositive();
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ServerApplication.class, StubJwtDecoder.class)
+                .run("--server.port=0", "--spring.jpa.show-sql=false", "--spring.threads.virtual.enabled=" + virtualThreads)) {
+            if (jdbcTemplate == null) {
+                jdbcTemplate = new JdbcTemplate(ownDataSource(context.getEnvironment()));
+                jdbcTemplate.update("""
+                        INSERT INTO products (id, sku, name, category, price, stock_quantity, min_stock_level)
+                        SELECT gen_random_uuid(), ? || g, 'Load test product', 'benchmark', 1, 1000000, 0
+                        FROM generate_series(1, ?) g
+                        """, prefix, PRODUCTS);
+            }
+            List<UUID> productIds = jdbcTemplate.queryForList(
+                    "SELECT id FROM products WHERE sku LIKE ?", UUID.class, prefix + "%");
+            URI base = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+
+            // The user is created on its first request; do that once rather than racing on it
+            http.send(movement(base, productIds.get(0)), HttpResponse.BodyHandlers.discarding());
+            drive(base, productIds, WARMUP_SECONDS, null);
+            Recorder recorder = new Recorder();
+            drive(base, productIds, MEASURE_SECONDS, recorder);
+
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            return recorder.result(virtualThreads ? "virtual" : "platform",
+                    (long) Search.in(meterRegistry).name("inventory.virtual-threads.pinned").counters().stream()
+                            .mapToDouble(Counter::count).sum(),
+                    Search.in(meterRegistry).name("inventory.db.bulkhead.wait").timers().stream()
+                            .mapToDouble(timer -> timer.max(TimeUnit.MILLISECONDS)).max().orElse(0));
+        }
+    }
+
+    private void drive(URI base, List<UUID> productIds, int seconds, Recorder recorder) throws InterruptedException {
+        Instant deadline = Instant.now().plusSeconds(seconds);
+        List<Thread> clients = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.add(Thread.ofVirtual().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (Instant.now().isBefore(deadline)) {
+                    HttpRequest request = random.nextInt(100) < WRITE_PERCENT
+                            ? movement(base, productIds.get(random.nextInt(productIds.size())))
+                            : recentMovements(base);
+                    long start = System.nanoTime();
+                    int status;
+                    try {
+                        status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    if (recorder != null) {
+                        recorder.record(System.nanoTime() - start, status >= 200 && status < 300);
+                    }
+                }
+            }));
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+    }
+
+    private static HttpRequest recentMovements(URI base) {
+        return HttpRequest.newBuilder(base.resolve("/api/v1/stock-movements?limit=20"))
+                .header("Authorization", "Bearer load-test")
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private static HttpRequest movement(URI base, UUID productId) {
+        String body = "{\"productId\":\"" + productId + "\",\"type\":\"ADJUSTMENT\",\"adjustment\":1,\"note\":\"load test\"}";
+        return HttpRequest.newBuilder(base.resolve("/api/v1/stock-movements"))
+                .header("Authorization", "Bearer load-test")
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /** Seeding and cleanup must not count against the pool or bulkhead of the application under test. */
+    private static DriverManagerDataSource ownDataSource(Environment environment) {
+        return new DriverManagerDataSource(
+                environment.getRequiredProperty("spring.datasource.url"),
+                environment.getProperty("spring.datasource.username"),
+                environment.getProperty("spring.datasource.password"));
+    }
+
+    @Configuration
+    static class StubJwtDecoder {
+
+        @Bean
+        @Primary
+        JwtDecoder loadTestJwtDecoder() {
+            return token -> Jwt.withTokenValue(token)
+                    .header("alg", "none")
+                    .subject(SUBJECT.toString())
+                    .claim("email", "load-test@example.com")
+                    .issuedAt(Instant.now())
+                    .expiresAt(Instant.now().plusSeconds(3600))
+                    .build();
+        }
+    }
+
+    private static final class Recorder {
+        private long[] latencies = new long[1 << 16];
+        private int count;
+        private long failures;
+
+        synchronized void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            failures += ok ? 0 : 1;
+        }
+
+        synchronized Result result(String mode, long pinned, double maxBulkheadWaitMs) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return new Result(mode, count, failures, count / (double) MEASURE_SECONDS,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), pinned, maxBulkheadWaitMs);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            return sorted.length == 0 ? 0 : sorted[(int) Math.max(0, Math.ceil(p * sorted.length) - 1)] / 1e6;
+        }
+    }
+
+    private record Result(String mode, long requests, long failures, double perSecond, double p50Ms, double p99Ms,
+                          long pinned, double maxBulkheadWaitMs) {
+
+        @Override
+        public String toString() {
+            return "%s threads: %d requests (%d failed), %.0f req/s, p50 %.1f ms, p99 %.1f ms, pinned %d, max bulkhead wait %.0f ms"
+                    .formatted(mode, requests, failures, perSecond, p50Ms, p99Ms, pinned, maxBulkheadWaitMs);
+        }
+    }
+}
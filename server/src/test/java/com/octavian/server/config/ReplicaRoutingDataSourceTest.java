@@ -0,0 +1,206 @@
+package com.octavian.server.config;
+
+import com.octavian.server.dto.ProductResponseDTO;
+import com.octavian.server.event.ProductChangedEvent;
+import com.octavian.server.repository.ProductRepository;
+import com.octavian.server.service.ProductCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Connection primaryConnection = mock(Connection.class);
+    private final DataSource primary = mock(DataSource.class);
+
+    @AfterEach
+    void unpin() {
+        ReplicaRoutingDataSource.unpin();
+    }
+
+    @Test
+    void readOnlyConnectionsGoToAReplicaUnlessPinned() throws Exception {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        Connection replicaConnection = mock(Connection.class);
+        DataSource replica = replica(replicaConnection, 10.0);
+        DataSource routed = routed(replicas(Map.of("replica-1", replica)));
+
+        assertThat(target(routed, true)).isSameAs(replicaConnection);
+        assertThat(target(routed, false)).isSameAs(primaryConnection);
+
+        ReplicaRoutingDataSource.pinToPrimary();
+        assertThat(target(routed, true)).isSameAs(primaryConnection);
+        ReplicaRoutingDataSource.unpin();
+        assertThat(target(routed, true)).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void threadsStartedUnderAPinFollowItUntilItIsReleased() throws Exception {
+        boolean[] pinned = new boolean[2];
+        ReplicaRoutingDataSource.pinToPrimary();
+        Thread child = Thread.ofVirtual().start(() -> pinned[0] = ReplicaRoutingDataSource.isPinned());
+        child.join();
+        // Like a pool thread created during a pinned request and still running after it
+        Thread worker = new Thread(() -> pinned[1] = ReplicaRoutingDataSource.isPinned());
+        ReplicaRoutingDataSource.unpin();
+        worker.start();
+        worker.join();
+
+        assertThat(pinned[0]).isTrue();
+        assertThat(pinned[1]).isFalse();
+    }
+
+    @Test
+    void laggingOrUnreachableReplicasFallBackToThePrimary() throws Exception {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        Connection replicaConnection = mock(Connection.class);
+        DataSource replica = replica(replicaConnection, 60_000.0);
+        ReadReplicas replicas = replicas(Map.of("replica-1", replica));
+        DataSource routed = routed(replicas);
+        assertThat(target(routed, true)).isSameAs(primaryConnection);
+
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        stubLag(replicaConnection, 0.0);
+        replicas.check();
+        assertThat(target(routed, true)).isSameAs(replicaConnection);
+
+        when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("down"));
+        assertThat(target(routed, true)).isSameAs(primaryConnection);
+        assertThat(replicas.pick()).isNull();
+        assertThat(meterRegistry.get("inventory.db.reads").tag("target", "primary").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void usableReplicasTakeTurns() throws Exception {
+        Connection first = mock(Connection.class);
+        Connection second = mock(Connection.class);
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        dataSources.put("replica-1", replica(first, 0.0));
+        dataSources.put("replica-2", replica(second, 0.0));
+        DataSource routed = routed(replicas(dataSources));
+
+        assertThat(target(routed, true)).isSameAs(first);
+        assertThat(target(routed, true)).isSameAs(second);
+        assertThat(target(routed, true)).isSameAs(first);
+    }
+
+    @Test
+    void productReadAfterAWriteIsNotServedFromALaggingReplica() throws Exception {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        Connection replicaConnection = mock(Connection.class);
+        // Within max-lag, but it has not replayed the write yet
+        DataSource routed = routed(replicas(Map.of("replica-1", replica(replicaConnection, 1000.0))));
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(routed));
+        readOnly.setReadOnly(true);
+        UUID id = UUID.randomUUID();
+        ProductResponseDTO before = product(id, 10);
+        ProductResponseDTO after = product(id, 3);
+        // What findById sees: a read-only transaction, answered by whichever server it lands on
+        Function<UUID, ProductResponseDTO> findById = key -> readOnly.execute(status ->
+                ((ConnectionProxy) DataSourceUtils.getConnection(routed)).getTargetConnection() == replicaConnection
+                        ? before : after);
+        ProductCache cache = new ProductCache(mock(ProductRepository.class), meterRegistry, true, false, 100, Duration.ofMinutes(10));
+
+        assertThat(cache.get(id, findById)).isEqualTo(before);
+        cache.onProductChanged(new ProductChangedEvent(after));
+
+        assertThat(findById.apply(id)).isEqualTo(before);
+        assertThat(cache.get(id, findById)).isEqualTo(after);
+    }
+
+    @Test
+    void replicasAreMeasuredAgainstThePrimarysPositionWhenItAnswers() throws Exception {
+        Statement primaryStatement = mock(Statement.class);
+        ResultSet primaryPosition = mock(ResultSet.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(primaryConnection.createStatement()).thenReturn(primaryStatement);
+        when(primaryStatement.executeQuery(anyString())).thenReturn(primaryPosition);
+        when(primaryPosition.next()).thenReturn(true);
+        when(primaryPosition.getString(1)).thenReturn("0/3000060");
+        Connection replicaConnection = mock(Connection.class);
+        PreparedStatement lagQuery = stubLag(replicaConnection, 0.0);
+        ReadReplicas replicas = replicas(Map.of("replica-1", replica(replicaConnection)));
+        assertThat(replicas.pick()).isNotNull();
+        verify(lagQuery).setString(1, "0/3000060");
+
+        // Without the primary's position the query falls back to requiring a WAL stream, and a
+        // replica that cannot show one reports no lag at all
+        when(primary.getConnection()).thenThrow(new SQLTransientConnectionException("down"));
+        stubLag(replicaConnection, null);
+        replicas.check();
+        assertThat(replicas.pick()).isNull();
+    }
+
+    private static ProductResponseDTO product(UUID id, int stock) {
+        return new ProductResponseDTO(id, "SKU-1", "Product", "Tools", BigDecimal.ONE, stock, 5);
+    }
+
+    private ReadReplicas replicas(Map<String, DataSource> dataSources) {
+        ReadReplicas replicas = new ReadReplicas(() -> primary, dataSources, Duration.ofSeconds(5), meterRegistry);
+        replicas.check();
+        return replicas;
+    }
+
+    private DataSource routed(ReadReplicas replicas) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        proxy.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replicas, meterRegistry));
+        return proxy;
+    }
+
+    /** What a transaction marked read-only (or not) ends up running its statements on. */
+    private static Connection target(DataSource routed, boolean readOnly) throws SQLException {
+        Connection connection = routed.getConnection();
+        connection.setReadOnly(readOnly);
+        return ((ConnectionProxy) connection).getTargetConnection();
+    }
+
+    private static DataSource replica(Connection connection, double lagMs) throws SQLException {
+        stubLag(connection, lagMs);
+        return replica(connection);
+    }
+
+    private static DataSource replica(Connection connection) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+
+    private static PreparedStatement stubLag(Connection connection, Double lagMs) throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getObject(1)).thenReturn(lagMs);
+        when(rs.getDouble(1)).thenReturn(lagMs == null ? 0.0 : lagMs);
+        return statement;
+    }
+}
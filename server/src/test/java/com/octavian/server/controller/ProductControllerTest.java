@@ -0,0 +1,75 @@
+package com.octavian.server.controller;
+
+import com.octavian.server.dto.ProductResponseDTO;
+import com.octavian.server.event.ProductChangedEvent;
+import com.octavian.server.repository.ProductRepository;
+import com.octavian.server.service.AuditLogService;
+import com.octavian.server.service.CollectionVersions;
+import com.octavian.server.service.LowStockIndex;
+import com.octavian.server.service.ProductCache;
+import com.octavian.server.service.ProductImportService;
+import com.octavian.server.service.ProductSearchService;
+import com.octavian.server.service.ProductService;
+import com.octavian.server.service.StockCheckpointService;
+import com.octavian.server.service.StockMovementService;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ProductControllerTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CollectionVersions collectionVersions =
+            new CollectionVersions(Duration.ofHours(1), List.of(), Duration.ofSeconds(5), 5000);
+    private final MockMvc mvc = MockMvcBuilders.standaloneSetup(new ProductController(
+            new ProductService(productRepository, mock(ProductCache.class), mock(LowStockIndex.class),
+                    mock(ApplicationEventPublisher.class)),
+            mock(ProductImportService.class),
+            mock(ProductSearchService.class),
+            mock(StockMovementService.class),
+            mock(StockCheckpointService.class),
+            mock(AuditLogService.class),
+            collectionVersions)).build();
+
+    private final ProductResponseDTO product =
+            new ProductResponseDTO(UUID.randomUUID(), "SKU-1", "Bolt", "Hardware", BigDecimal.ONE, 10, 5);
+
+    @Test
+    void anUnchangedListingIsRevalidatedWithoutQueryingTheDatabase() throws Exception {
+        when(productRepository.findPage(any(), any(), any(), any(), any(), anyInt())).thenReturn(List.of(product));
+
+        String etag = mvc.perform(get("/api/v1/products"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("W/\"");
+
+        mvc.perform(get("/api/v1/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        verify(productRepository, times(1)).findPage(any(), any(), any(), any(), any(), anyInt());
+
+        collectionVersions.onProductChanged(new ProductChangedEvent(product));
+
+        mvc.perform(get("/api/v1/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        verify(productRepository, times(2)).findPage(any(), any(), any(), any(), any(), anyInt());
+    }
+}
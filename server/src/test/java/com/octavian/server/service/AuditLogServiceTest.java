@@ -0,0 +1,219 @@
+package com.octavian.server.service;
+
+import com.octavian.server.model.AuditActionType;
+import com.octavian.server.model.AuditLog;
+import com.octavian.server.model.User;
+import com.octavian.server.repository.AuditLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuditLogServiceTest {
+
+    private final AuditLogRepository repository = mock(AuditLogRepository.class);
+    private final UserService userService = mock(UserService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    /** Entries per saveAll call, in order. */
+    private final List<List<AuditLog>> batches = Collections.synchronizedList(new ArrayList<>());
+    private final Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").subject("user-1").build();
+    /** Counted down when the writer enters saveAll, which then waits for {@link #release}. */
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private CountDownLatch release = new CountDownLatch(0);
+    private AuditLogService service;
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        release.countDown();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        if (service != null) {
+            service.stop();
+        }
+    }
+
+    @Test
+    void entriesLoggedInATransactionAreQueuedOnlyOnceItCommits() throws InterruptedException {
+        service = started(true, 100, 10, 20, AuditLogService.OverflowPolicy.BLOCK);
+
+        inTransaction(() -> service.log(jwt, AuditActionType.STOCK_RECEIVING, "STOCK_MOVEMENT", UUID.randomUUID(), "rolled back", null), false);
+        inTransaction(() -> service.log(jwt, AuditActionType.STOCK_RECEIVING, "STOCK_MOVEMENT", UUID.randomUUID(), "committed", null), true);
+
+        awaitWritten(1);
+        Thread.sleep(100);
+        assertThat(written()).containsExactly("committed");
+    }
+
+    @Test
+    void aFullBatchIsWrittenWithoutWaitingForTheInterval() {
+        service = started(true, 100, 3, 1_000, AuditLogService.OverflowPolicy.BLOCK, 50);
+
+        long start = System.nanoTime();
+        log("a", "b", "c");
+        awaitWritten(3);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(500);
+        assertThat(batches).hasSize(1);
+    }
+
+    @Test
+    void aPartialBatchIsWrittenOnceTheIntervalPasses() {
+        service = started(true, 100, 100, 50, AuditLogService.OverflowPolicy.BLOCK, 50);
+
+        log("a", "b");
+        awaitWritten(2);
+
+        assertThat(batches).hasSize(1);
+        assertThat(written()).containsExactly("a", "b");
+    }
+
+    @Test
+    void dropShedsEntriesAtOnceWhenTheQueueIsFull() throws InterruptedException {
+        release = new CountDownLatch(1);
+        service = started(true, 2, 1, 20, AuditLogService.OverflowPolicy.DROP, 10_000);
+        log("a");
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        long start = System.nanoTime();
+        log("b", "c", "d");
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+        awaitWritten(3);
+
+        assertThat(elapsedMs).isLessThan(1_000);
+        assertThat(written()).containsExactly("a", "b", "c");
+        assertThat(dropped()).isEqualTo(1);
+    }
+
+    @Test
+    void blockWaitsForRoomAndShedsOnlyAfterTheTimeout() throws InterruptedException {
+        release = new CountDownLatch(1);
+        service = started(true, 1, 1, 20, AuditLogService.OverflowPolicy.BLOCK, 300);
+        log("a");
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        log("b");
+
+        long start = System.nanoTime();
+        log("timed out");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(290);
+        assertThat(dropped()).isEqualTo(1);
+
+        Thread waiting = new Thread(() -> log("c"));
+        waiting.start();
+        waiting.join(50);
+        assertThat(waiting.isAlive()).isTrue();
+        release.countDown();
+        waiting.join(5_000);
+        awaitWritten(3);
+
+        assertThat(written()).containsExactly("a", "b", "c");
+        assertThat(dropped()).isEqualTo(1);
+    }
+
+    @Test
+    void queuedEntriesAreWrittenOnShutdown() throws InterruptedException {
+        release = new CountDownLatch(1);
+        service = started(true, 100, 1, 10_000, AuditLogService.OverflowPolicy.BLOCK, 50);
+        log("a");
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        log("b", "c");
+
+        Thread.ofPlatform().start(() -> {
+            sleep(100);
+            release.countDown();
+        });
+        service.stop();
+
+        assertThat(written()).containsExactly("a", "b", "c");
+    }
+
+    private void log(String... descriptions) {
+        for (String description : descriptions) {
+            service.log(jwt, AuditActionType.STOCK_RECEIVING, "STOCK_MOVEMENT", UUID.randomUUID(), description, null);
+        }
+    }
+
+    private double dropped() {
+        return meterRegistry.counter("inventory.audit.dropped").count();
+    }
+
+    private void inTransaction(Runnable action, boolean commit) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            action.run();
+            if (commit) {
+                TransactionSynchronizationUtils.triggerAfterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+
+    private AuditLogService started(boolean async, int capacity, int batchSize, long flushIntervalMs,
+                                    AuditLogService.OverflowPolicy policy) {
+        return started(async, capacity, batchSize, flushIntervalMs, policy, 50);
+    }
+
+    private AuditLogService started(boolean async, int capacity, int batchSize, long flushIntervalMs,
+                                    AuditLogService.OverflowPolicy policy, long blockTimeoutMs) {
+        User user = User.builder().id(UUID.randomUUID()).authUserId("user-1").email("user@example.com")
+                .createdAt(Instant.now()).lastLoginAt(Instant.now()).build();
+        when(userService.getOrCreateUserFromJwt(any())).thenReturn(user);
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<AuditLog> logs = List.copyOf(invocation.getArgument(0));
+            writing.countDown();
+            release.await();
+            batches.add(logs);
+            return logs;
+        });
+        AuditLogService audit = new AuditLogService(repository, userService,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), mock(ApplicationEventPublisher.class),
+                meterRegistry, async, capacity, batchSize, flushIntervalMs, policy, blockTimeoutMs);
+        audit.start();
+        return audit;
+    }
+
+    private void awaitWritten(int entries) {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (written().size() < entries && System.nanoTime() < deadline) {
+            sleep(5);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<String> written() {
+        synchronized (batches) {
+            return batches.stream().flatMap(List::stream).map(AuditLog::getDescription).toList();
+        }
+    }
+}
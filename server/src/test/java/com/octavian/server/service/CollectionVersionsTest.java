@@ -0,0 +1,35 @@
+package com.octavian.server.service;
+
+import com.octavian.server.event.StockMovementsRecordedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CollectionVersionsTest {
+
+    @Test
+    void listingsStayOnThePrimaryWhileReplicasMayMissTheLatestChange() throws Exception {
+        CollectionVersions versions = new CollectionVersions(Duration.ofMinutes(1), List.of("jdbc:postgresql://replica/db"),
+                Duration.ofMillis(100), 50);
+        assertThat(versions.isAheadOfReplicas(CollectionVersions.Collection.STOCK_MOVEMENTS)).isFalse();
+
+        versions.onStockMovementsRecorded(new StockMovementsRecordedEvent(List.of()));
+        assertThat(versions.isAheadOfReplicas(CollectionVersions.Collection.STOCK_MOVEMENTS)).isTrue();
+        assertThat(versions.isAheadOfReplicas(CollectionVersions.Collection.PRODUCTS)).isFalse();
+
+        Thread.sleep(200);
+        assertThat(versions.isAheadOfReplicas(CollectionVersions.Collection.STOCK_MOVEMENTS)).isFalse();
+    }
+
+    @Test
+    void withoutReplicasEverythingIsReadFromThePrimaryAnyway() {
+        CollectionVersions versions = new CollectionVersions(Duration.ofMinutes(1), List.of(), Duration.ofSeconds(5), 5000);
+
+        versions.onStockMovementsRecorded(new StockMovementsRecordedEvent(List.of()));
+
+        assertThat(versions.isAheadOfReplicas(CollectionVersions.Collection.STOCK_MOVEMENTS)).isFalse();
+    }
+}
@@ -0,0 +1,95 @@
+package com.octavian.server.service;
+
+import com.octavian.server.dto.CursorPageDTO;
+import com.octavian.server.dto.DashboardDTO;
+import com.octavian.server.dto.InventoryStatsDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DashboardServiceTest {
+
+    private final InventoryValuation inventoryValuation = mock(InventoryValuation.class);
+    private final ProductService productService = mock(ProductService.class);
+    private final StockMovementService stockMovementService = mock(StockMovementService.class);
+    private final AuditLogService auditLogService = mock(AuditLogService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final DashboardService dashboardService = new DashboardService(mock(UserService.class), inventoryValuation,
+            productService, stockMovementService, auditLogService, transactionManager, 200, 2);
+
+    @AfterEach
+    void stop() {
+        dashboardService.stop();
+    }
+
+    @Test
+    void slowAndFailingSectionsDegradeOnTheirOwn() {
+        InventoryStatsDTO stats = new InventoryStatsDTO(1, 2, BigDecimal.TEN, 0, 0, List.of());
+        when(inventoryValuation.getStats()).thenReturn(stats);
+        when(productService.getLowStockProducts(anyInt())).thenThrow(new IllegalStateException("boom"));
+        when(stockMovementService.getRecentMovements(anyInt(), any())).thenReturn(new CursorPageDTO<>(List.of(), null));
+        when(auditLogService.getRecentLogs(anyInt(), any())).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return new CursorPageDTO<>(List.of(), null);
+        });
+
+        long start = System.nanoTime();
+        DashboardDTO dashboard = dashboardService.getDashboard(null, 10);
+
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(2000);
+        assertThat(dashboard.stats()).isEqualTo(stats);
+        assertThat(dashboard.recentMovements()).isEmpty();
+        assertThat(dashboard.lowStock()).isNull();
+        assertThat(dashboard.recentAuditLogs()).isNull();
+        assertThat(dashboard.degraded()).containsExactly("lowStock", "recentAuditLogs");
+        ArgumentCaptor<TransactionDefinition> transactions = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, times(3)).getTransaction(transactions.capture());
+        assertThat(transactions.getAllValues()).allSatisfy(transaction -> {
+            assertThat(transaction.isReadOnly()).isTrue();
+            assertThat(transaction.getTimeout()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void sectionsBeyondTheNodeLimitDegradeInsteadOfQueueing() {
+        InventoryStatsDTO stats = new InventoryStatsDTO(1, 2, BigDecimal.TEN, 0, 0, List.of());
+        when(inventoryValuation.getStats()).thenReturn(stats);
+        AtomicInteger started = new AtomicInteger();
+        when(productService.getLowStockProducts(anyInt())).thenAnswer(invocation -> {
+            started.incrementAndGet();
+            Thread.sleep(5000);
+            return List.of();
+        });
+        when(stockMovementService.getRecentMovements(anyInt(), any())).thenAnswer(invocation -> {
+            started.incrementAndGet();
+            Thread.sleep(5000);
+            return new CursorPageDTO<>(List.of(), null);
+        });
+        when(auditLogService.getRecentLogs(anyInt(), any())).thenAnswer(invocation -> {
+            started.incrementAndGet();
+            Thread.sleep(5000);
+            return new CursorPageDTO<>(List.of(), null);
+        });
+
+        DashboardDTO dashboard = dashboardService.getDashboard(null, 10);
+
+        // Two permits: the third database section never starts, and the in-memory stats need none
+        assertThat(dashboard.degraded()).containsExactlyInAnyOrder("lowStock", "recentMovements", "recentAuditLogs");
+        assertThat(started).hasValue(2);
+        assertThat(dashboard.stats()).isEqualTo(stats);
+    }
+}
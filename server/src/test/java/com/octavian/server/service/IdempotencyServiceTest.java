@@ -0,0 +1,175 @@
+package com.octavian.server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.octavian.server.exception.DuplicateResourceException;
+import com.octavian.server.model.IdempotencyRecord;
+import com.octavian.server.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+
+    private static final String KEY = "key-1";
+    private static final String ID = "user-1:" + KEY;
+
+    private final IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").subject("user-1").build();
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @Test
+    void aRetryIsReplayedFromTheCacheWithoutRunningTheActionOrTouchingTheDatabase() {
+        IdempotencyService service = service();
+        when(repository.claim(eq(ID), anyString(), any(), any())).thenReturn(1);
+
+        ResponseEntity<Map> first = service.execute(jwt, KEY, Map.of("qty", 1), Map.class, true, created());
+        ResponseEntity<Map> retry = service.execute(jwt, KEY, Map.of("qty", 1), Map.class, true, created());
+
+        assertThat(runs).hasValue(1);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(first.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(retry.getBody()).isEqualTo(Map.of("run", 1));
+        // Claimed and completed once, in the action's transaction
+        verify(repository).claim(eq(ID), anyString(), any(), any());
+        verify(repository).complete(eq(ID), eq(201), anyString());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void aKeyCompletedElsewhereIsReplayedFromTheDatabase() throws Exception {
+        IdempotencyService service = service();
+        when(repository.claim(eq(ID), anyString(), any(), any())).thenReturn(0);
+        when(repository.findById(ID)).thenReturn(Optional.of(record(hash(Map.of("qty", 1)), 201, "{\"run\":7}")));
+
+        ResponseEntity<Map> replayed = service.execute(jwt, KEY, Map.of("qty", 1), Map.class, true, created());
+
+        assertThat(runs).hasValue(0);
+        assertThat(replayed.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(replayed.getBody()).isEqualTo(Map.of("run", 7));
+        verify(repository, never()).complete(anyString(), anyInt(), any());
+    }
+
+    @Test
+    void aKeyReusedWithADifferentPayloadIsRejected() throws Exception {
+        IdempotencyService service = service();
+        when(repository.claim(eq(ID), anyString(), any(), any())).thenReturn(1);
+        service.execute(jwt, KEY, Map.of("qty", 1), Map.class, true, created());
+
+        // From the cache, and from the database on a node that has not seen the key
+        assertThatThrownBy(() -> service.execute(jwt, KEY, Map.of("qty", 2), Map.class, true, created()))
+                .isInstanceOf(DuplicateResourceException.class);
+        IdempotencyService otherNode = service();
+        when(repository.claim(eq(ID), anyString(), any(), any())).thenReturn(0);
+        when(repository.findById(ID)).thenReturn(Optional.of(record(hash(Map.of("qty", 1)), 201, "{\"run\":1}")));
+        assertThatThrownBy(() -> otherNode.execute(jwt, KEY, Map.of("qty", 2), Map.class, true, created()))
+                .isInstanceOf(DuplicateResourceException.class);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void aClaimWithoutAResponseIsRejectedRatherThanRunAgain() throws Exception {
+        IdempotencyService service = service();
+        when(repository.claim(eq(ID), anyString(), any(), any())).thenReturn(0);
+        when(repository.findById(ID)).thenReturn(Optional.of(record(hash(Map.of("qty", 1)), null, null)));
+
+        assertThatThrownBy(() -> service.execute(jwt, KEY, Map.of("qty", 1), Map.class, true, created()))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessageContaining("still being processed");
+        assertThatThrownBy(() -> service.execute(jwt, KEY, Map.of("qty", 1), Map.class, false, created()))
+                .isInstanceOf(DuplicateResourceException.class);
+        assertThat(runs).hasValue(0);
+    }
+
+    @Test
+    void aFailedActionLeavesTheKeyFreeForARetry() {
+        IdempotencyService service = service();
+        when(repository.claim(eq(ID), anyString(), any(), any())).thenReturn(1);
+        Supplier<ResponseEntity<Map>> failing = () -> {
+            runs.incrementAndGet();
+            throw new IllegalArgumentException("Insufficient stock");
+        };
+
+        // In one transaction the claim rolls back with the action
+        assertThatThrownBy(() -> service.execute(jwt, KEY, Map.of("qty", 1), Map.class, true, failing))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(transactionManager).rollback(any());
+        verify(repository, never()).complete(anyString(), anyInt(), any());
+
+        // Around a group commit the claim has committed and is released explicitly
+        assertThatThrownBy(() -> service.execute(jwt, KEY, Map.of("qty", 1), Map.class, false, failing))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(repository).release(ID);
+
+        ResponseEntity<Map> retried = service.execute(jwt, KEY, Map.of("qty", 1), Map.class, true, created());
+        assertThat(retried.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(runs).hasValue(3);
+    }
+
+    @Test
+    void aGroupCommittedResponseIsReturnedEvenIfItCannotBeStored() {
+        IdempotencyService service = service();
+        when(repository.claim(eq(ID), anyString(), any(), any())).thenReturn(1);
+        when(repository.complete(eq(ID), anyInt(), anyString())).thenThrow(new IllegalStateException("database gone"));
+
+        ResponseEntity<Map> response = service.execute(jwt, KEY, Map.of("qty", 1), Map.class, false, created());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        verify(repository, never()).release(anyString());
+    }
+
+    @Test
+    void withoutAKeyTheActionSimplyRuns() {
+        IdempotencyService service = service();
+
+        service.execute(jwt, null, Map.of("qty", 1), Map.class, true, created());
+        service.execute(jwt, null, Map.of("qty", 1), Map.class, true, created());
+
+        assertThat(runs).hasValue(2);
+        verify(repository, never()).claim(anyString(), anyString(), any(), any());
+    }
+
+    private IdempotencyService service() {
+        return new IdempotencyService(repository, new TransactionTemplate(transactionManager), objectMapper,
+                Duration.ofHours(24), 100);
+    }
+
+    private Supplier<ResponseEntity<Map>> created() {
+        return () -> new ResponseEntity<>(Map.of("run", runs.incrementAndGet()), HttpStatus.CREATED);
+    }
+
+    private static IdempotencyRecord record(String requestHash, Integer status, String body) {
+        return new IdempotencyRecord(ID, requestHash, status, body, Instant.now(), Instant.now().plusSeconds(60));
+    }
+
+    /** The fingerprint the service takes of a request body. */
+    private String hash(Object request) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request)));
+    }
+}
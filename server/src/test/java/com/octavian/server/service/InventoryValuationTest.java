@@ -0,0 +1,66 @@
+package com.octavian.server.service;
+
+import com.octavian.server.dto.CategoryStatsDTO;
+import com.octavian.server.dto.InventoryStatsDTO;
+import com.octavian.server.dto.ProductResponseDTO;
+import com.octavian.server.event.ProductChangedEvent;
+import com.octavian.server.model.UuidV7Generator;
+import com.octavian.server.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class InventoryValuationTest {
+
+    private final InventoryValuation valuation =
+            new InventoryValuation(mock(ProductRepository.class), null, new SimpleMeterRegistry());
+
+    @BeforeEach
+    void loadEmptyCatalog() {
+        valuation.load();
+    }
+
+    @Test
+    void addsUpPerCategoryAndOverall() {
+        valuation.onProductChanged(new ProductChangedEvent(product("Tools", "2.50", 4, 5)));
+        valuation.onProductChanged(new ProductChangedEvent(product("Tools", "1.00", 10, 5)));
+        valuation.onProductChanged(new ProductChangedEvent(product(null, "3.00", 0, 1)));
+
+        InventoryStatsDTO stats = valuation.getStats();
+
+        assertThat(stats.products()).isEqualTo(3);
+        assertThat(stats.units()).isEqualTo(14);
+        assertThat(stats.value()).isEqualByComparingTo("20.00");
+        assertThat(stats.lowStockProducts()).isEqualTo(1);
+        assertThat(stats.outOfStockProducts()).isEqualTo(1);
+        assertThat(stats.categories()).extracting(CategoryStatsDTO::category).containsExactly(null, "Tools");
+    }
+
+    @Test
+    void movesProductsBetweenCategoriesAndIgnoresStaleChanges() {
+        ProductResponseDTO product = product("Tools", "2.00", 3, 1);
+        ProductChangedEvent older = new ProductChangedEvent(product);
+        ProductChangedEvent newer = new ProductChangedEvent(new ProductResponseDTO(product.id(), product.sku(),
+                product.name(), "Garden", product.price(), 7, product.minStockLevel()));
+
+        valuation.onProductChanged(older);
+        valuation.onProductChanged(newer);
+        valuation.onProductChanged(older);
+
+        InventoryStatsDTO stats = valuation.getStats();
+        assertThat(stats.categories()).extracting(CategoryStatsDTO::category).containsExactly("Garden");
+        assertThat(stats.units()).isEqualTo(7);
+        assertThat(stats.value()).isEqualByComparingTo("14.00");
+    }
+
+    private static ProductResponseDTO product(String category, String price, int stock, int minimum) {
+        UUID id = UuidV7Generator.next();
+        return new ProductResponseDTO(id, "SKU-" + id, "Product", category, new BigDecimal(price), stock, minimum);
+    }
+}
@@ -0,0 +1,57 @@
+package com.octavian.server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LiveEventServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LiveEventService service = new LiveEventService(new ObjectMapper(), meterRegistry, 2, 3, 1000, 0);
+
+    @Test
+    void fansOutToSubscribersOfTheTopic() {
+        LiveEventService.Subscriber movements = service.subscribe(Set.of(LiveEventService.STOCK_MOVEMENTS), null);
+        LiveEventService.Subscriber all = service.subscribe(LiveEventService.TOPICS, null);
+
+        service.publish(LiveEventService.AUDIT_LOGS, "audit-log", Map.of("n", 1));
+
+        assertThat(movements.buffer).isEmpty();
+        assertThat(all.buffer).extracting(LiveEventService.LiveEvent::data).containsExactly("{\"n\":1}");
+    }
+
+    @Test
+    void replaysWhatWasMissedAndResetsWhenItIsGone() {
+        LiveEventService.Subscriber first = service.subscribe(LiveEventService.TOPICS, null);
+        service.publish(LiveEventService.STOCK_MOVEMENTS, "stock-movement", 1);
+        String seen = first.buffer.poll().id();
+        service.publish(LiveEventService.STOCK_MOVEMENTS, "stock-movement", 2);
+        service.publish(LiveEventService.AUDIT_LOGS, "audit-log", 3);
+
+        LiveEventService.Subscriber resumed = service.subscribe(Set.of(LiveEventService.STOCK_MOVEMENTS), seen);
+        assertThat(resumed.reset).isFalse();
+        assertThat(resumed.replay).extracting(LiveEventService.LiveEvent::data).containsExactly("2");
+
+        service.publish(LiveEventService.AUDIT_LOGS, "audit-log", 4);
+        service.publish(LiveEventService.AUDIT_LOGS, "audit-log", 5);
+        assertThat(service.subscribe(LiveEventService.TOPICS, seen).reset).isTrue();
+        assertThat(service.subscribe(LiveEventService.TOPICS, "other-1").reset).isTrue();
+    }
+
+    @Test
+    void disconnectsSubscribersThatFallBehind() {
+        LiveEventService.Subscriber slow = service.subscribe(LiveEventService.TOPICS, null);
+        for (int i = 0; i < 3; i++) {
+            service.publish(LiveEventService.STOCK_MOVEMENTS, "stock-movement", i);
+        }
+
+        assertThat(slow.closed).isTrue();
+        assertThat(meterRegistry.get("inventory.live.evicted").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("inventory.live.subscribers").gauge().value()).isZero();
+    }
+}
@@ -0,0 +1,84 @@
+package com.octavian.server.service;
+
+import com.octavian.server.dto.ProductResponseDTO;
+import com.octavian.server.event.ProductChangedEvent;
+import com.octavian.server.model.UuidV7Generator;
+import com.octavian.server.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LowStockIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final LowStockIndex index = new LowStockIndex(productRepository, mock(JdbcTemplate.class));
+
+    @Test
+    void ordersByShortfallFurthestFirst() {
+        ProductResponseDTO slightly = product(4, 5);
+        ProductResponseDTO empty = product(0, 10);
+        ProductResponseDTO atMinimum = product(5, 5);
+        index.load(List.of(slightly, empty, atMinimum, product(6, 5)));
+
+        assertThat(index.top(10)).containsExactly(empty, slightly, atMinimum);
+        assertThat(index.top(1)).containsExactly(empty);
+    }
+
+    @Test
+    void followsChangesAndIgnoresStaleOnes() {
+        ProductResponseDTO product = product(2, 5);
+        ProductChangedEvent older = new ProductChangedEvent(withStock(product, 1));
+        ProductChangedEvent newer = new ProductChangedEvent(withStock(product, 8));
+
+        index.onProductChanged(older);
+        assertThat(index.top(10)).extracting(ProductResponseDTO::stockQuantity).containsExactly(1);
+
+        index.onProductChanged(newer);
+        index.onProductChanged(older);
+        assertThat(index.top(10)).isEmpty();
+    }
+
+    @Test
+    void databaseRowsDoNotOverrideAppliedChanges() {
+        ProductResponseDTO product = product(3, 5);
+        index.onProductChanged(new ProductChangedEvent(withStock(product, 0)));
+
+        index.load(List.of(product));
+
+        assertThat(index.top(10)).extracting(ProductResponseDTO::stockQuantity).containsExactly(0);
+    }
+
+    @Test
+    void reconciliationPicksUpChangesMadeOnOtherNodes() {
+        ProductResponseDTO restocked = product(1, 5);
+        ProductResponseDTO drained = product(9, 5);
+        ProductResponseDTO unchanged = product(2, 5);
+        when(productRepository.findLowStockAfterId(any())).thenReturn(List.of(restocked, unchanged));
+        index.rebuild();
+        index.onProductChanged(new ProductChangedEvent(drained));
+
+        when(productRepository.findLowStockAfterId(any()))
+                .thenReturn(List.of(withStock(drained, 0), unchanged));
+        index.reconcile();
+
+        assertThat(index.top(10)).containsExactly(withStock(drained, 0), unchanged);
+    }
+
+    private static ProductResponseDTO product(int stock, int minimum) {
+        UUID id = UuidV7Generator.next();
+        return new ProductResponseDTO(id, "SKU-" + id, "Product", "Test", BigDecimal.ONE, stock, minimum);
+    }
+
+    private static ProductResponseDTO withStock(ProductResponseDTO product, int stock) {
+        return new ProductResponseDTO(product.id(), product.sku(), product.name(), product.category(),
+                product.price(), stock, product.minStockLevel());
+    }
+}
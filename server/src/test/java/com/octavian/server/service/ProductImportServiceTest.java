@@ -0,0 +1,109 @@
+package com.octavian.server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.octavian.server.dto.ProductCreateDTO;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class ProductImportServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
+    private final ProductImportService service = new ProductImportService(mock(JdbcTemplate.class),
+            validatorFactory.getValidator(), objectMapper, mock(ApplicationEventPublisher.class));
+
+    @AfterEach
+    void close() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void csvFieldsMayBeQuotedWithCommasQuotesAndLineBreaks() throws IOException {
+        List<ProductImportService.ParsedRow> rows = csv("\uFEFFSKU,Name,category,price,stock_quantity\r\n"
+                + "A-1,\"Bolt, hex \"\"M8\"\"\",Hardware,1.50,10\r\n"
+                + "A-2,\"Two\nlines\",,2,\r\n"
+                + "\r\n"
+                + "A-3,Nut,,abc,1\n");
+
+        assertThat(rows).extracting(ProductImportService.ParsedRow::rowNo).containsExactly(1L, 2L, 3L);
+        assertThat(rows.get(0).product()).isEqualTo(
+                new ProductCreateDTO("A-1", "Bolt, hex \"M8\"", "Hardware", new BigDecimal("1.50"), 10, null));
+        assertThat(rows.get(1).product()).isEqualTo(
+                new ProductCreateDTO("A-2", "Two\nlines", null, new BigDecimal("2"), null, null));
+        assertThat(rows.get(2).sku()).isEqualTo("A-3");
+        assertThat(rows.get(2).error()).isEqualTo("price: not a valid number");
+    }
+
+    @Test
+    void aCsvWithoutTheRequiredColumnsIsRejected() {
+        assertThatThrownBy(() -> csv("sku,name\nA-1,Bolt\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("[price]");
+    }
+
+    @Test
+    void badNdjsonLinesBecomeRowErrors() throws IOException {
+        List<ProductImportService.ParsedRow> rows = ndjson("""
+                {"sku":"A-1","name":"Bolt","price":1.5}
+                null
+
+                {"sku":"A-2",
+                {"sku":"A-3","name":"Nut","price":2}
+                """);
+
+        assertThat(rows).extracting(ProductImportService.ParsedRow::rowNo).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(rows.get(0).error()).isNull();
+        assertThat(rows.get(1).product()).isNull();
+        assertThat(rows.get(1).error()).isEqualTo("Invalid JSON: expected an object");
+        assertThat(rows.get(2).error()).startsWith("Invalid JSON: ");
+        assertThat(rows.get(3).product().sku()).isEqualTo("A-3");
+    }
+
+    @Test
+    void rowsAreValidatedAgainstTheDtoAndTheColumnLimits() {
+        assertThat(service.validate(new ProductCreateDTO("A-1", "Bolt", null, BigDecimal.ONE, 0, 0))).isNull();
+        assertThat(service.validate(new ProductCreateDTO(" ", null, null, new BigDecimal("-1"), -1, null)))
+                .isEqualTo("name: Name is mandatory; price: Price must be zero or greater; sku: SKU is mandatory; "
+                        + "stockQuantity: Stock quantity cannot be negative");
+        assertThat(service.validate(new ProductCreateDTO("A".repeat(51), "Bolt", "C".repeat(101),
+                new BigDecimal("100000000"), null, null)))
+                .isEqualTo("sku: size must be at most 50; category: size must be at most 100; "
+                        + "price: must be less than 100000000");
+    }
+
+    private static List<ProductImportService.ParsedRow> csv(String body) throws IOException {
+        return readAll(new ProductImportService.CsvRowReader(stream(body)));
+    }
+
+    private List<ProductImportService.ParsedRow> ndjson(String body) throws IOException {
+        return readAll(new ProductImportService.NdjsonRowReader(stream(body), objectMapper));
+    }
+
+    private static List<ProductImportService.ParsedRow> readAll(ProductImportService.RowReader reader) throws IOException {
+        List<ProductImportService.ParsedRow> rows = new ArrayList<>();
+        ProductImportService.ParsedRow row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
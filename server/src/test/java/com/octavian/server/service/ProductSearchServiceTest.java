@@ -0,0 +1,64 @@
+package com.octavian.server.service;
+
+import com.octavian.server.dto.ProductResponseDTO;
+import com.octavian.server.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductSearchServiceTest {
+
+    private final ProductSearchIndex index = mock(ProductSearchIndex.class);
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductService productService = mock(ProductService.class);
+    private final ProductSearchService service =
+            new ProductSearchService(index, productRepository, productService, mock(JdbcTemplate.class));
+
+    private final UUID prefixHit = UUID.randomUUID();
+    private final UUID substringHit = UUID.randomUUID();
+    private final UUID fuzzyHit = UUID.randomUUID();
+
+    @BeforeEach
+    void products() {
+        when(productService.getProductById(any())).thenAnswer(invocation -> product(invocation.getArgument(0)));
+        when(index.isReady()).thenReturn(true);
+    }
+
+    @Test
+    void substringMatchesFromTheDatabaseFollowThePrefixMatchesUpToTheLimit() {
+        when(index.search("bolt", 3)).thenReturn(List.of(prefixHit));
+        when(productRepository.searchIdsByPattern("bolt%", "%bolt%", 3)).thenReturn(List.of(prefixHit, substringHit));
+        when(productRepository.searchIdsBySimilarity("bolt", 3)).thenReturn(List.of(substringHit, fuzzyHit, UUID.randomUUID()));
+        service.createSearchIndexes(); // against a mocked database, so pg_trgm counts as available
+
+        List<ProductResponseDTO> results = service.search(" bolt ", 3);
+
+        assertThat(results).extracting(ProductResponseDTO::id).containsExactly(prefixHit, substringHit, fuzzyHit);
+    }
+
+    @Test
+    void theDatabaseIsNotAskedWhenTheIndexFillsTheLimit() {
+        when(index.search("bolt", 2)).thenReturn(List.of(prefixHit, substringHit));
+
+        assertThat(service.search("bolt", 2)).hasSize(2);
+
+        verify(productRepository, never()).searchIdsByPattern(anyString(), anyString(), anyInt());
+    }
+
+    private static ProductResponseDTO product(UUID id) {
+        return new ProductResponseDTO(id, "SKU-" + id, "Bolt", null, BigDecimal.ONE, 1, 0);
+    }
+}
@@ -0,0 +1,109 @@
+package com.octavian.server.service;
+
+import com.octavian.server.dto.ProductCreateDTO;
+import com.octavian.server.dto.ProductResponseDTO;
+import com.octavian.server.dto.StockMovementCreateDTO;
+import com.octavian.server.model.StockMovementType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires concurrent +/- movements at a handful of products and checks that every product's final
+ * stock equals its initial stock plus the movement ledger. Needs a real database, so it only runs
+ * with {@code -Dstress=true}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "stress", matches = "true")
+class StockMovementConcurrencyStressTest {
+
+    private static final int PRODUCTS = 4;
+    private static final int THREADS = 32;
+    private static final int MOVEMENTS = 5_000;
+    private static final int INITIAL_STOCK = 50;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StockMovementService stockMovementService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<UUID> productIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (UUID id : productIds) {
+            jdbcTemplate.update("DELETE FROM stock_movements WHERE product_id = ?", id);
+            jdbcTemplate.update("DELETE FROM products WHERE id = ?", id);
+        }
+    }
+
+    @Test
+    void concurrentMovementsKeepStockConsistentWithLedger() throws InterruptedException {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < PRODUCTS; i++) {
+            ProductResponseDTO product = productService.createProduct(new ProductCreateDTO(
+                    "STRESS-" + run + "-" + i, "Stress product " + i, "stress",
+                    BigDecimal.ONE, INITIAL_STOCK, 5));
+            productIds.add(product.id());
+        }
+
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        for (int i = 0; i < MOVEMENTS; i++) {
+            pool.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                UUID productId = productIds.get(random.nextInt(PRODUCTS));
+                int adjustment = random.nextBoolean() ? random.nextInt(1, 6) : -random.nextInt(1, 6);
+                try {
+                    stockMovementService.createMovement(new StockMovementCreateDTO(
+                            productId, StockMovementType.ADJUSTMENT, adjustment, null, null, "stress"), null);
+                    applied.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    rejected.incrementAndGet();
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf(getClass().getSimpleName() + ": %d applied, %d rejected (negative), %d failed in %.2fs -> %.0f movements/s%n",
+                applied.get(), rejected.get(), failed.get(), seconds, (applied.get() + rejected.get()) / seconds);
+
+        assertThat(failed.get()).isZero();
+        for (UUID id : productIds) {
+            Integer stock = jdbcTemplate.queryForObject(
+                    "SELECT stock_quantity FROM products WHERE id = ?", Integer.class, id);
+            Long ledger = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(SUM(adjustment), 0) FROM stock_movements WHERE product_id = ?", Long.class, id);
+            Integer lowest = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MIN(resulting_stock), 0) FROM stock_movements WHERE product_id = ?", Integer.class, id);
+            assertThat(stock.longValue()).isEqualTo(INITIAL_STOCK + ledger);
+            assertThat(lowest).isGreaterThanOrEqualTo(0);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.octavian.server.service;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Same contention scenario as {@link StockMovementConcurrencyStressTest}, with group commit enabled.
+ */
+@SpringBootTest(properties = "inventory.stock-movements.group-commit.enabled=true")
+@EnabledIfSystemProperty(named = "stress", matches = "true")
+class StockMovementGroupCommitStressTest extends StockMovementConcurrencyStressTest {
+}
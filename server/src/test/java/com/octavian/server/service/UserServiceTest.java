@@ -0,0 +1,94 @@
+package com.octavian.server.service;
+
+import com.octavian.server.model.User;
+import com.octavian.server.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").subject("user-1")
+            .claim("email", "user@example.com").build();
+    private final UserService service = new UserService(userRepository, jdbcTemplate, transactionManager,
+            100, Duration.ofMinutes(10), Duration.ZERO);
+
+    @AfterEach
+    void clearTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void aMissInsideAWriteTransactionJoinsItAndIsCachedOnlyOnCommit() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus(false));
+        when(userRepository.findByAuthUserId("user-1")).thenReturn(Optional.empty());
+        when(userRepository.save(any())).thenAnswer(invocation -> withId(invocation.getArgument(0)));
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        service.getOrCreateUserFromJwt(jwt);
+        service.getOrCreateUserFromJwt(jwt);
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        clearTransaction();
+        service.getOrCreateUserFromJwt(jwt);
+
+        ArgumentCaptor<TransactionDefinition> definitions = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, times(2)).getTransaction(definitions.capture());
+        assertThat(definitions.getAllValues()).extracting(TransactionDefinition::getPropagationBehavior)
+                .containsOnly(TransactionDefinition.PROPAGATION_REQUIRED);
+        verify(userRepository, times(2)).save(any());
+    }
+
+    @Test
+    void loginsAreRecordedBesideTheSharedCachedUser() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus(true));
+        Instant firstLogin = Instant.now().minusSeconds(3600);
+        User stored = User.builder().id(UUID.randomUUID()).authUserId("user-1").email("user@example.com")
+                .createdAt(firstLogin).lastLoginAt(firstLogin).build();
+        when(userRepository.findByAuthUserId("user-1")).thenReturn(Optional.of(stored));
+        when(userRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        User cached = service.getOrCreateUserFromJwt(jwt);
+        Instant upserted = cached.getLastLoginAt();
+        assertThat(service.getOrCreateUserFromJwt(jwt)).isSameAs(cached);
+        Instant recorded = service.getOrCreateFromJwt(jwt).lastLoginAt();
+        service.flushLastLogins();
+
+        assertThat(cached.getLastLoginAt()).isEqualTo(upserted);
+        assertThat(recorded).isAfterOrEqualTo(upserted);
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+        verify(userRepository).save(any());
+    }
+
+    private static User withId(User user) {
+        user.setId(UUID.randomUUID());
+        return user;
+    }
+}